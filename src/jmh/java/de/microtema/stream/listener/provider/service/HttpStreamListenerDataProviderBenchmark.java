@@ -0,0 +1,140 @@
+package de.microtema.stream.listener.provider.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.config.DataProviderConfiguration;
+import de.microtema.stream.listener.service.BenchmarkEvent;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One receive and commit of {@link HttpStreamListenerDataProvider} per operation, against a local stub server
+ * responding a pre-encoded batch. The {@code records} counter reports records per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpStreamListenerDataProviderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpStreamListenerDataProvider<BenchmarkEvent> dataProvider;
+    private StreamListenerEndpoint<BenchmarkEvent> endpoint;
+    private byte[] body;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RecordCounter {
+
+        public long records;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+
+        var objectMapper = new ObjectMapper();
+
+        var records = LongStream.range(0, batchSize)
+                .mapToObj(it -> new BenchmarkEvent(it, "event-" + it, false))
+                .collect(Collectors.toList());
+
+        body = objectMapper.writeValueAsBytes(records);
+
+        if (gzip) {
+
+            var outputStream = new ByteArrayOutputStream();
+
+            try (var gzipOutputStream = new GZIPOutputStream(outputStream)) {
+                gzipOutputStream.write(body);
+            }
+
+            body = outputStream.toByteArray();
+        }
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        serverExecutor = Executors.newFixedThreadPool(2);
+
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        var configuration = new DataProviderConfiguration();
+        configuration.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+
+        dataProvider = new HttpStreamListenerDataProvider<>(configuration, objectMapper);
+
+        endpoint = new StreamListenerEndpoint<>();
+        endpoint.setId("benchmark");
+        endpoint.setGroupId("benchmark");
+        endpoint.setTopic("benchmark");
+        endpoint.setBatchSize(batchSize);
+        endpoint.setRecordType(BenchmarkEvent.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        server.stop(0);
+        serverExecutor.shutdown();
+    }
+
+    @Benchmark
+    public int receiveAndCommit(RecordCounter counter) {
+
+        var records = dataProvider.receive(endpoint);
+        var commitBatch = new CommitBatch(records.size());
+
+        for (int index = 0; index < records.size(); index++) {
+            commitBatch.set(index, records.get(index).getId(), ResponseState.OK, null);
+        }
+
+        dataProvider.commit(endpoint, commitBatch);
+
+        counter.records += records.size();
+
+        return records.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+
+        try (exchange) {
+
+            if ("POST".equals(exchange.getRequestMethod())) {
+
+                exchange.getRequestBody().readAllBytes();
+                exchange.sendResponseHeaders(204, -1);
+
+                return;
+            }
+
+            if (gzip) {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+}
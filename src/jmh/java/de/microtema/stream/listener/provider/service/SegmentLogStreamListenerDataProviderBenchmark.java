@@ -0,0 +1,114 @@
+package de.microtema.stream.listener.provider.service;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.service.BenchmarkEvent;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append, and append plus receive and commit of a batch, of {@link SegmentLogStreamListenerDataProvider} per operation
+ * against a log in a temporary directory. The {@code records} counter reports records per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SegmentLogStreamListenerDataProviderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private Path directory;
+    private SegmentLogStreamListenerDataProvider<BenchmarkEvent> dataProvider;
+    private StreamListenerEndpoint<BenchmarkEvent> endpoint;
+    private BenchmarkEvent event;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RecordCounter {
+
+        public long records;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+
+        directory = Files.createTempDirectory("segment-log-benchmark");
+        dataProvider = new SegmentLogStreamListenerDataProvider<>(directory, new BenchmarkEventCodec());
+        event = new BenchmarkEvent(null, "event", false);
+
+        endpoint = new StreamListenerEndpoint<>();
+        endpoint.setId("benchmark");
+        endpoint.setGroupId("benchmark");
+        endpoint.setTopic("benchmark");
+        endpoint.setBatchSize(batchSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+
+        dataProvider.close();
+
+        try (var paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(it -> it.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long append(RecordCounter counter) {
+
+        counter.records++;
+
+        return dataProvider.append("append", event);
+    }
+
+    @Benchmark
+    public int appendReceiveAndCommit(RecordCounter counter) {
+
+        for (int index = 0; index < batchSize; index++) {
+            dataProvider.append("benchmark", event);
+        }
+
+        var records = dataProvider.receive(endpoint);
+        var commitBatch = new CommitBatch(records.size());
+
+        for (int index = 0; index < records.size(); index++) {
+            commitBatch.set(index, records.get(index).getId(), ResponseState.OK, null);
+        }
+
+        dataProvider.commit(endpoint, commitBatch);
+
+        counter.records += records.size();
+
+        return records.size();
+    }
+
+    static class BenchmarkEventCodec implements RecordCodec<BenchmarkEvent> {
+
+        @Override
+        public void encode(BenchmarkEvent record, ByteBuffer buffer) {
+
+            buffer.put((byte) (record.fail() ? 1 : 0));
+            buffer.put(record.eventId().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public BenchmarkEvent decode(long id, ByteBuffer buffer) {
+
+            var fail = buffer.get() == 1;
+
+            return new BenchmarkEvent(id, StandardCharsets.UTF_8.decode(buffer).toString(), fail);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+
+/**
+ * Benchmark record, {@code fail} makes the listener throw.
+ */
+public record BenchmarkEvent(Long id, String eventId, boolean fail) implements EventIdAware {
+
+    @Override
+    public String getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+}
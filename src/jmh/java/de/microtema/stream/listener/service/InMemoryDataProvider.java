@@ -0,0 +1,47 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data provider handing out the same batch on every receive and discarding commits,
+ * so the benchmarks measure the library only.
+ */
+class InMemoryDataProvider implements StreamListenerDataProvider<BenchmarkEvent> {
+
+    private final List<BenchmarkEvent> records;
+
+    private long committed;
+
+    InMemoryDataProvider(List<BenchmarkEvent> records) {
+        this.records = records;
+    }
+
+    @Override
+    public List<BenchmarkEvent> receive(StreamListenerEndpoint<BenchmarkEvent> endpoint) {
+
+        // Filters remove records from the batch, so hand out a copy
+        return new ArrayList<>(records);
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<BenchmarkEvent> endpoint, List<ResponseStatus> responses) {
+
+        committed += responses.size();
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<BenchmarkEvent> endpoint, CommitBatch commitBatch) {
+
+        committed += commitBatch.size();
+    }
+
+    long getCommitted() {
+        return committed;
+    }
+}
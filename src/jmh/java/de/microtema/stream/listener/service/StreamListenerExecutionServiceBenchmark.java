@@ -0,0 +1,130 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.ExecutionMode;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.support.StreamListenerInvoker;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * One receive, execute and commit cycle of {@link StreamListenerExecutionService} per operation,
+ * against an {@link InMemoryDataProvider}. The {@code records} counter reports records per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamListenerExecutionServiceBenchmark {
+
+    @Param({"record", "batch", "concurrent", "partitioned"})
+    public String mode;
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean filter;
+
+    @Param({"0", "0.01"})
+    public double errorRate;
+
+    /**
+     * Listener cost in {@link Blackhole#consumeCPU(long)} tokens per record.
+     */
+    @Param({"0", "100"})
+    public long listenerCost;
+
+    private StreamListenerExecutionService<BenchmarkEvent> service;
+    private StreamListenerEndpoint<BenchmarkEvent> endpoint;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RecordCounter {
+
+        public long records;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+
+        var metrics = new DefaultListableBeanFactory().getBeanProvider(StreamListenerMetrics.class);
+
+        service = new StreamListenerExecutionService<>(metrics);
+
+        var failEvery = errorRate > 0 ? Math.round(1 / errorRate) : 0;
+
+        var records = LongStream.range(0, batchSize)
+                .mapToObj(it -> new BenchmarkEvent(it, "event-" + it, failEvery > 0 && it % failEvery == 0))
+                .collect(Collectors.toList());
+
+        var listener = new BenchmarkListener(listenerCost);
+        var batch = "batch".equals(mode);
+        var method = batch ? BenchmarkListener.class.getDeclaredMethod("onBatch", List.class) : BenchmarkListener.class.getDeclaredMethod("on", BenchmarkEvent.class);
+
+        endpoint = new StreamListenerEndpoint<>();
+        endpoint.setId("benchmark");
+        endpoint.setGroupId("benchmark");
+        endpoint.setTopic("benchmark");
+        endpoint.setBatch(batch);
+        endpoint.setDataProvider(new InMemoryDataProvider(records));
+        endpoint.setInvoker(StreamListenerInvoker.of(listener, method));
+
+        if ("concurrent".equals(mode) || "partitioned".equals(mode)) {
+            endpoint.setConcurrency(4);
+            endpoint.setQueueCapacity(batchSize);
+            endpoint.setExecutionMode("partitioned".equals(mode) ? ExecutionMode.PARTITIONED : ExecutionMode.PLATFORM);
+        }
+
+        if (filter) {
+            endpoint.setRecordFilterStrategy(it -> it.getId() % 10 != 0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        service.destroy();
+    }
+
+    @Benchmark
+    public int executeEndpointMethod(RecordCounter counter) {
+
+        var received = service.executeEndpointMethod(endpoint);
+
+        counter.records += received;
+
+        return received;
+    }
+
+    static class BenchmarkListener {
+
+        private final long cost;
+
+        BenchmarkListener(long cost) {
+            this.cost = cost;
+        }
+
+        void on(BenchmarkEvent event) {
+
+            Blackhole.consumeCPU(cost);
+
+            if (event.fail()) {
+                throw new IllegalStateException("Benchmark failure");
+            }
+        }
+
+        void onBatch(List<BenchmarkEvent> events) {
+
+            events.forEach(this::on);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.microtema.stream.listener.support;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former reflective dispatch (make accessible, copy arguments, {@link Method#invoke}) per record
+ * with the {@link StreamListenerInvoker} resolved once per endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamListenerInvokerBenchmark {
+
+    private final Object[] methodParameters = new Object[0];
+
+    private EventListener bean;
+    private Method method;
+    private StreamListenerInvoker invoker;
+    private String record;
+
+    @Setup
+    public void setUp() throws Exception {
+
+        bean = new EventListener();
+        method = EventListener.class.getDeclaredMethod("on", String.class);
+        invoker = StreamListenerInvoker.of(bean, method, methodParameters);
+        record = "record";
+    }
+
+    @Benchmark
+    public void reflection() throws Exception {
+
+        var arguments = new Object[1 + methodParameters.length];
+
+        arguments[0] = record;
+
+        System.arraycopy(methodParameters, 0, arguments, 1, methodParameters.length);
+
+        ReflectionUtils.makeAccessible(method);
+        method.invoke(bean, arguments);
+    }
+
+    @Benchmark
+    public void invoker() {
+
+        invoker.invoke(record);
+    }
+
+    static class EventListener {
+
+        private long length;
+
+        private void on(String record) {
+            length += record.length();
+        }
+    }
+}
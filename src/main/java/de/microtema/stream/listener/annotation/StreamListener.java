@@ -1,5 +1,6 @@
 package de.microtema.stream.listener.annotation;
 
+import de.microtema.stream.listener.listener.PartitionKeyExtractor;
 import de.microtema.stream.listener.listener.RecordFilterStrategy;
 import de.microtema.stream.listener.listener.StreamEventListenerErrorHandler;
 import org.springframework.core.annotation.AliasFor;
@@ -7,7 +8,7 @@ import org.springframework.core.annotation.AliasFor;
 import java.lang.annotation.*;
 
 /**
- * Annotation that marks a method to be registered as listener. Exactly one of the topic attribute must be specified.
+ * Annotation that marks a method to be registered as listener. At least one topic must be specified.
  * The annotated method must expect arguments of typo single record or collection of records.
  * It will typically have a void return type; if not, the returned value will be ignored when called through the factory.
  */
@@ -36,8 +37,9 @@ public @interface StreamListener {
     /**
      * The topics for this listener.
      * The entries can be 'topic name', 'property-placeholder keys' or 'expressions'.
-     * An expression must be resolved to the topic name.
+     * An expression must be resolved to the topic name or a comma separated list of topic names.
      * <p>
+     * Each topic gets its own endpoint, the endpoints of a listener are polled round-robin by a single poller.
      *
      * @return the topic names or expressions (SpEL) to listen to.
      */
@@ -83,6 +85,70 @@ public @interface StreamListener {
      */
     String concurrency() default "";
 
+    /**
+     * Maximum number of records queued for the worker threads of a concurrent listener,
+     * beyond that the listener thread executes the record itself.
+     * Defaults to {@code stream-listener.queue-capacity}, then to the {@link #concurrency() concurrency}.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the queue capacity.
+     */
+    String queueCapacity() default "";
+
+    /**
+     * The threads executing the records of a concurrent listener, either {@code platform} (default)
+     * for a dedicated pool of {@link #concurrency() concurrency} threads, {@code virtual} for one
+     * virtual thread per record with at most {@link #concurrency() concurrency} records in flight or
+     * {@code partitioned} for {@link #concurrency() concurrency} serial lanes keyed by
+     * {@link #partitionKeyExtractor() partitionKeyExtractor}.
+     * Virtual threads require Java 21, older runtimes fall back to platform threads. Batch listeners and listeners
+     * with a concurrency of 1 execute on the listener thread, a warning is logged at startup.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the execution mode.
+     * @see de.microtema.stream.listener.model.ExecutionMode
+     */
+    String executionMode() default "";
+
+    /**
+     * Set an {@link PartitionKeyExtractor} bean
+     * name to extract the key records of a {@code partitioned} listener are ordered by. If a SpEL
+     * expression is provided ({@code #{...}}), the expression can either evaluate to a
+     * {@link PartitionKeyExtractor} instance or a bean name.
+     * Defaults to {@link de.microtema.stream.listener.model.EventIdAware#getPartitionKey()}, which is the event id
+     * unless the record type overrides it; a warning is logged at startup if neither is set.
+     *
+     * @return the partition key extractor.
+     */
+    String partitionKeyExtractor() default "";
+
+    /**
+     * Lower bound of the adaptive batch size. The batch size starts at {@code stream-listener.limit},
+     * grows while batches are full and cycles stay within {@link #targetCycleTime() targetCycleTime}
+     * and shrinks when cycles get slow or errors spike. Defaults to {@code stream-listener.limit}.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the min batch size.
+     */
+    String minBatchSize() default "";
+
+    /**
+     * Upper bound of the adaptive batch size. Defaults to {@code stream-listener.limit},
+     * so the batch size is fixed unless a range is configured.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the max batch size.
+     */
+    String maxBatchSize() default "";
+
+    /**
+     * Target time in milliseconds to receive, execute and commit a batch of an adaptive batch size listener.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the target cycle time.
+     */
+    String targetCycleTime() default "";
+
     /**
      * delay – the time from now to delay execution
      * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
@@ -91,6 +157,177 @@ public @interface StreamListener {
      */
     String delay() default "";
 
+    /**
+     * Upper bound in milliseconds of the exponential backoff between polls that return no records.
+     * Endpoints without {@link #autoStartup() autoStartup} start polling after this delay.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the max delay.
+     */
+    String maxDelay() default "";
+
+    /**
+     * Number of batches to receive ahead while the current batch is executed and the previous one
+     * is committed. Zero (the default) keeps the strict receive, execute, commit cycle.
+     * <p>The data provider must hand out disjoint batches to concurrent receives (e.g. by locking).
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the prefetch depth.
+     */
+    String prefetch() default "";
+
+    /**
+     * Maximum number of records pulled from the data provider cursor and executed at once.
+     * Each chunk is executed and committed before the next one is pulled, batch listeners receive
+     * a chunk at a time. Zero (the default) receives and executes the whole batch at once.
+     * <p>Prefetch is not used by chunked listeners.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the chunk size.
+     */
+    String chunkSize() default "";
+
+    /**
+     * Maximum number of responses merged from consecutive batches into a single commit.
+     * When set, commits run off the listener thread. Zero (the default) commits every batch on its own.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the commit size.
+     */
+    String commitSize() default "";
+
+    /**
+     * Maximum time in milliseconds a response waits for further batches before it is committed.
+     * Only used together with {@link #commitSize() commitSize}.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the commit delay.
+     */
+    String commitDelay() default "";
+
+    /**
+     * Number of invocations of a failing record (or batch of a batch listener) before it is marked as error.
+     * Retries run in-process with exponential backoff, without a round trip to the data provider.
+     * One (the default) disables retries.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the max attempts.
+     */
+    String maxAttempts() default "";
+
+    /**
+     * Backoff in milliseconds before the first retry, doubled for each further retry.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the retry delay.
+     */
+    String retryDelay() default "";
+
+    /**
+     * Upper bound in milliseconds of the backoff between retries.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the retry max delay.
+     */
+    String retryMaxDelay() default "";
+
+    /**
+     * Exceptions that are retried, matched against the thrown exception and its causes.
+     * Empty (the default) retries any exception.
+     *
+     * @return the retryable exceptions.
+     */
+    Class<? extends Throwable>[] retryOn() default {};
+
+    /**
+     * Number of failed deliveries of the same event id after which the event is quarantined:
+     * it is reported once, committed as {@code QUARANTINED} and not executed again if it is redelivered.
+     * Zero (the default) disables the quarantine. In batch mode only failures isolated to a single record
+     * (see {@link #maxBisectInvocations()}) are counted, records of a failed batch are committed as {@code ERROR}.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the quarantine threshold.
+     */
+    String quarantineAfter() default "";
+
+    /**
+     * Batch listeners only: maximal number of listener re-invocations to isolate the failing records of a failed batch.
+     * The failed batch is split in halves and the listener is invoked on each half, recursively,
+     * so only the failing records are committed as {@code ERROR}. Isolating a single failing record
+     * of a batch of n records takes about 2 * log2(n) invocations.
+     * Zero (the default) disables the bisection.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the maximal bisect invocations.
+     */
+    String maxBisectInvocations() default "";
+
+    /**
+     * Percentage of failed records within the last cycles at which the circuit of the endpoint opens:
+     * no records are received until the circuit open time passed, then a small batch probes the listener
+     * and closes the circuit again on success.
+     * Zero (the default) disables the circuit breaker.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the failure rate threshold.
+     */
+    String failureRateThreshold() default "";
+
+    /**
+     * Time in millis the circuit stays open before it is probed.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the circuit open time.
+     */
+    String circuitOpenTime() default "";
+
+    /**
+     * Interval in millis at which the leases of the records in flight are extended through
+     * {@code StreamListenerDataProvider#extendLease}, until the records are committed.
+     * Should be well below the lock duration of the data provider.
+     * Zero (the default) disables the lease heartbeat.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the lease renew interval.
+     */
+    String leaseRenewInterval() default "";
+
+    /**
+     * Number of recently processed event ids kept to skip redelivered events: an event processed within
+     * {@link #dedupTtl()} is not executed again and committed as {@code SKIPPED}.
+     * Zero (the default) disables the deduplication.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the dedup cache size.
+     */
+    String dedupSize() default "";
+
+    /**
+     * Time in millis a processed event id is kept in the dedup cache.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the dedup ttl.
+     */
+    String dedupTtl() default "";
+
+    /**
+     * Set to true to put a bloom filter in front of the dedup cache, which answers most lookups of new events
+     * without locking the cache, at about 10 bits per event id.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the dedup filter flag.
+     */
+    String dedupFilter() default "";
+
+    /**
+     * Share of the scheduler threads of this listener relative to the other listeners, when polls queue up.
+     * A listener of weight 2 gets twice the poll time of a listener of weight 1.
+     * <p>SpEL {@code #{...}} and property place holders {@code ${...}} are supported.
+     *
+     * @return the weight.
+     */
+    String weight() default "";
+
     /**
      * Set to true or false, to override the default setting in the container factory. May
      * be a property placeholder or SpEL expression that evaluates to a {@link Boolean} or
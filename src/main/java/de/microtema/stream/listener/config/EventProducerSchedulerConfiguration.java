@@ -6,8 +6,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
-import java.util.concurrent.Executors;
-
 @Configuration
 @ConditionalOnProperty(prefix = "stream-listener", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class EventProducerSchedulerConfiguration implements SchedulingConfigurer {
@@ -21,8 +19,7 @@ public class EventProducerSchedulerConfiguration implements SchedulingConfigurer
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
 
-        taskRegistrar.setScheduler(Executors.newScheduledThreadPool(10));
-
-        streamEventPublisher.startup(taskRegistrar);
+        // NOTE: The polls run on the library managed StreamListenerScheduler, the task registrar is left to the application
+        streamEventPublisher.startup();
     }
 }
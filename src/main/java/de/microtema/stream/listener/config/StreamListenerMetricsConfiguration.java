@@ -0,0 +1,28 @@
+package de.microtema.stream.listener.config;
+
+import de.microtema.stream.listener.metrics.MicrometerStreamListenerMetrics;
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+@ConditionalOnProperty(prefix = "stream-listener.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StreamListenerMetricsConfiguration {
+
+    @Bean
+    public StreamListenerMetrics streamListenerMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+
+        var registry = meterRegistry.getIfAvailable();
+
+        if (registry == null) {
+            return StreamListenerMetrics.NOOP;
+        }
+
+        return new MicrometerStreamListenerMetrics(registry);
+    }
+}
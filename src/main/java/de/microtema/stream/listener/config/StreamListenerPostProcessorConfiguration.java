@@ -1,10 +1,15 @@
 package de.microtema.stream.listener.config;
 
 import de.microtema.stream.listener.converter.EventDataToResponseStatusConverter;
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
 import de.microtema.stream.listener.processor.StreamListenerPostProcessor;
 import de.microtema.stream.listener.provider.config.DataProviderConfiguration;
+import de.microtema.stream.listener.provider.config.HttpDataProviderConfiguration;
 import de.microtema.stream.listener.publisher.StreamEventPublisher;
+import de.microtema.stream.listener.publisher.StreamListenerScheduler;
 import de.microtema.stream.listener.service.StreamListenerExecutionService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -16,7 +21,9 @@ import org.springframework.context.annotation.Role;
 @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
 @Import(value = {
         DataProviderConfiguration.class,
+        HttpDataProviderConfiguration.class,
         EventDataToResponseStatusConverter.class,
+        StreamListenerMetricsConfiguration.class,
         StreamEventPublisher.class,
         StreamListenerExecutionService.class,
         EventProducerSchedulerConfiguration.class
@@ -30,4 +37,11 @@ public class StreamListenerPostProcessorConfiguration {
 
         return new StreamListenerPostProcessor(streamEventPublisher);
     }
+
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Bean(destroyMethod = "shutdown")
+    public StreamListenerScheduler streamListenerScheduler(@Value("${stream-listener.scheduler.pool-size:10}") int poolSize, ObjectProvider<StreamListenerMetrics> metrics) {
+
+        return new StreamListenerScheduler(poolSize, metrics.getIfAvailable(() -> StreamListenerMetrics.NOOP));
+    }
 }
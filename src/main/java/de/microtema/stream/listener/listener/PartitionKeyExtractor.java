@@ -0,0 +1,21 @@
+package de.microtema.stream.listener.listener;
+
+import de.microtema.stream.listener.model.EventIdAware;
+
+/**
+ * Extract the key a record is partitioned by. Records with the same key are executed in order
+ * by a partitioned listener, records with different keys may be executed in parallel.
+ *
+ * @param <T>
+ */
+@FunctionalInterface
+public interface PartitionKeyExtractor<T extends EventIdAware> {
+
+    /**
+     * Return the partition key of given record.
+     *
+     * @param record the record may not be null.
+     * @return the key, may be null.
+     */
+    Object extractKey(T record);
+}
@@ -0,0 +1,175 @@
+package de.microtema.stream.listener.metrics;
+
+import de.microtema.stream.listener.model.CircuitState;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import io.micrometer.core.instrument.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer metrics tagged by endpoint {@code id}, {@code groupId} and {@code topic}.
+ * <ul>
+ * <li>{@code stream.listener.receive}, {@code stream.listener.execute}, {@code stream.listener.commit}: timers</li>
+ * <li>{@code stream.listener.commit.failed}: counter of responses that failed to commit</li>
+ * <li>{@code stream.listener.records}: counter per {@code state} (OK, SKIPPED, ERROR, QUARANTINED)</li>
+ * <li>{@code stream.listener.batch.size}: distribution of non-empty batch sizes</li>
+ * <li>{@code stream.listener.polls.empty}: counter of empty polls</li>
+ * <li>{@code stream.listener.records.inflight}: gauge of records in execution</li>
+ * <li>{@code stream.listener.dedup}: counter of dedup cache lookups per {@code result} (hit, miss)</li>
+ * <li>{@code stream.listener.scheduler.queue.delay}: timer of the wait of due polls for a scheduler thread</li>
+ * <li>{@code stream.listener.circuit.state}: gauge of the circuit breaker state (0 closed, 1 half open, 2 open)</li>
+ * <li>{@code stream.listener.workers.active}, {@code stream.listener.workers.queued}: gauges of the worker pool</li>
+ * <li>{@code stream.listener.workers.completed}: counter of records completed by the worker pool</li>
+ * </ul>
+ */
+public class MicrometerStreamListenerMetrics implements StreamListenerMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, EndpointMeters> endpointMeters = new ConcurrentHashMap<>();
+
+    public MicrometerStreamListenerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public long start() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void received(StreamListenerEndpoint<?> endpoint, long start, int records) {
+
+        var meters = getEndpointMeters(endpoint);
+
+        meters.receive.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (records == 0) {
+            meters.emptyPolls.increment();
+        } else {
+            meters.batchSize.record(records);
+        }
+    }
+
+    @Override
+    public void executing(StreamListenerEndpoint<?> endpoint, int records) {
+
+        getEndpointMeters(endpoint).inFlight.addAndGet(records);
+    }
+
+    @Override
+    public void executed(StreamListenerEndpoint<?> endpoint, long start, int records, CommitBatch commitBatch) {
+
+        var meters = getEndpointMeters(endpoint);
+
+        meters.execute.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meters.inFlight.addAndGet(-records);
+
+        if (commitBatch == null) {
+            return;
+        }
+
+        for (var state : ResponseState.values()) {
+            meters.records[state.ordinal()].increment(commitBatch.count(state));
+        }
+    }
+
+    @Override
+    public void committed(StreamListenerEndpoint<?> endpoint, long start, int responses) {
+
+        getEndpointMeters(endpoint).commit.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void commitFailed(StreamListenerEndpoint<?> endpoint, int responses) {
+
+        getEndpointMeters(endpoint).commitFailures.increment(responses);
+    }
+
+    @Override
+    public void deduplicated(StreamListenerEndpoint<?> endpoint, boolean duplicate) {
+
+        var meters = getEndpointMeters(endpoint);
+
+        (duplicate ? meters.dedupHits : meters.dedupMisses).increment();
+    }
+
+    @Override
+    public void queued(StreamListenerEndpoint<?> endpoint, long start) {
+
+        getEndpointMeters(endpoint).queueDelay.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void workerPool(StreamListenerEndpoint<?> endpoint, int active, int queued, long completed) {
+
+        var meters = getEndpointMeters(endpoint);
+
+        meters.activeWorkers.set(active);
+        meters.queuedWorkers.set(queued);
+        meters.completedWorkers.set(completed);
+    }
+
+    @Override
+    public void circuitState(StreamListenerEndpoint<?> endpoint, CircuitState state) {
+
+        getEndpointMeters(endpoint).circuitState.set(state.ordinal());
+    }
+
+    private EndpointMeters getEndpointMeters(StreamListenerEndpoint<?> endpoint) {
+
+        return endpointMeters.computeIfAbsent(endpoint.getId(), it -> new EndpointMeters(meterRegistry, endpoint));
+    }
+
+    private static class EndpointMeters {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger circuitState = new AtomicInteger();
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        private final AtomicInteger queuedWorkers = new AtomicInteger();
+        private final AtomicLong completedWorkers = new AtomicLong();
+
+        private final Timer receive;
+        private final Timer execute;
+        private final Timer commit;
+        private final Timer queueDelay;
+        private final Counter[] records = new Counter[ResponseState.values().length];
+        private final Counter emptyPolls;
+        private final Counter commitFailures;
+        private final Counter dedupHits;
+        private final Counter dedupMisses;
+        private final DistributionSummary batchSize;
+
+        private EndpointMeters(MeterRegistry meterRegistry, StreamListenerEndpoint<?> endpoint) {
+
+            var tags = Tags.of("id", String.valueOf(endpoint.getId()), "groupId", String.valueOf(endpoint.getGroupId()), "topic", String.valueOf(endpoint.getTopic()));
+
+            receive = Timer.builder("stream.listener.receive").description("Receive of a batch").tags(tags).register(meterRegistry);
+            execute = Timer.builder("stream.listener.execute").description("Listener invocation of a batch").tags(tags).register(meterRegistry);
+            commit = Timer.builder("stream.listener.commit").description("Commit of responses").tags(tags).register(meterRegistry);
+            queueDelay = Timer.builder("stream.listener.scheduler.queue.delay").description("Wait of due polls for a scheduler thread").tags(tags).register(meterRegistry);
+
+            for (var state : ResponseState.values()) {
+                records[state.ordinal()] = Counter.builder("stream.listener.records").description("Processed records").tags(tags.and("state", state.name())).register(meterRegistry);
+            }
+
+            dedupHits = Counter.builder("stream.listener.dedup").description("Dedup cache lookups").tags(tags.and("result", "hit")).register(meterRegistry);
+            dedupMisses = Counter.builder("stream.listener.dedup").description("Dedup cache lookups").tags(tags.and("result", "miss")).register(meterRegistry);
+            commitFailures = Counter.builder("stream.listener.commit.failed").description("Responses that failed to commit").tags(tags).register(meterRegistry);
+            emptyPolls = Counter.builder("stream.listener.polls.empty").description("Polls without records").tags(tags).register(meterRegistry);
+            batchSize = DistributionSummary.builder("stream.listener.batch.size").description("Records per non-empty batch").baseUnit("records").tags(tags).register(meterRegistry);
+
+            Gauge.builder("stream.listener.records.inflight", inFlight, AtomicInteger::get).description("Records in execution").tags(tags).register(meterRegistry);
+            Gauge.builder("stream.listener.circuit.state", circuitState, AtomicInteger::get).description("Circuit breaker state: 0 closed, 1 half open, 2 open").tags(tags).register(meterRegistry);
+            Gauge.builder("stream.listener.workers.active", activeWorkers, AtomicInteger::get).description("Worker threads executing records").tags(tags).register(meterRegistry);
+            Gauge.builder("stream.listener.workers.queued", queuedWorkers, AtomicInteger::get).description("Records queued for the worker threads").tags(tags).register(meterRegistry);
+            FunctionCounter.builder("stream.listener.workers.completed", completedWorkers, AtomicLong::get).description("Records completed by the worker threads").tags(tags).register(meterRegistry);
+        }
+    }
+}
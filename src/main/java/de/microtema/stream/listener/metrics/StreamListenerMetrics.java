@@ -0,0 +1,111 @@
+package de.microtema.stream.listener.metrics;
+
+import de.microtema.stream.listener.model.CircuitState;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.support.CommitBatch;
+
+/**
+ * Metrics of receive, execute and commit per endpoint.
+ * The default methods do nothing, so {@link #NOOP} costs nothing on the hot path when metrics are disabled.
+ */
+public interface StreamListenerMetrics {
+
+    StreamListenerMetrics NOOP = new StreamListenerMetrics() {
+    };
+
+    /**
+     * Start a timer.
+     *
+     * @return the start time in nanos, NOOP does not read the clock
+     */
+    default long start() {
+        return 0;
+    }
+
+    /**
+     * Record a receive of the endpoint.
+     *
+     * @param endpoint may not be null
+     * @param start    the start time
+     * @param records  number of received records, zero for an empty poll
+     */
+    default void received(StreamListenerEndpoint<?> endpoint, long start, int records) {
+    }
+
+    /**
+     * Record the records the endpoint starts to execute.
+     *
+     * @param endpoint may not be null
+     * @param records  number of records in flight
+     */
+    default void executing(StreamListenerEndpoint<?> endpoint, int records) {
+    }
+
+    /**
+     * Record the execution of the endpoint.
+     *
+     * @param endpoint    may not be null
+     * @param start       the start time
+     * @param records     number of records no longer in flight
+     * @param commitBatch may be null, if the execution failed
+     */
+    default void executed(StreamListenerEndpoint<?> endpoint, long start, int records, CommitBatch commitBatch) {
+    }
+
+    /**
+     * Record a commit of the endpoint.
+     *
+     * @param endpoint  may not be null
+     * @param start     the start time
+     * @param responses number of committed responses
+     */
+    default void committed(StreamListenerEndpoint<?> endpoint, long start, int responses) {
+    }
+
+    /**
+     * Record a failed commit of the endpoint.
+     *
+     * @param endpoint  may not be null
+     * @param responses number of responses not committed
+     */
+    default void commitFailed(StreamListenerEndpoint<?> endpoint, int responses) {
+    }
+
+    /**
+     * Record a lookup of the dedup cache of the endpoint.
+     *
+     * @param endpoint  may not be null
+     * @param duplicate true if the event was processed recently (hit)
+     */
+    default void deduplicated(StreamListenerEndpoint<?> endpoint, boolean duplicate) {
+    }
+
+    /**
+     * Record the time a due poll of the endpoint waited for a scheduler thread.
+     *
+     * @param endpoint may not be null
+     * @param start    the time the poll was due
+     */
+    default void queued(StreamListenerEndpoint<?> endpoint, long start) {
+    }
+
+    /**
+     * Record the state of the worker pool of a concurrent endpoint after a batch.
+     *
+     * @param endpoint  may not be null
+     * @param active    number of threads executing records
+     * @param queued    number of records waiting for a thread
+     * @param completed total number of records completed by the pool
+     */
+    default void workerPool(StreamListenerEndpoint<?> endpoint, int active, int queued, long completed) {
+    }
+
+    /**
+     * Record a state change of the circuit breaker of the endpoint.
+     *
+     * @param endpoint may not be null
+     * @param state    the new state
+     */
+    default void circuitState(StreamListenerEndpoint<?> endpoint, CircuitState state) {
+    }
+}
@@ -0,0 +1,22 @@
+package de.microtema.stream.listener.model;
+
+/**
+ * State of the circuit breaker of an endpoint.
+ */
+public enum CircuitState {
+
+    /**
+     * Records are received and executed.
+     */
+    CLOSED,
+
+    /**
+     * A small batch is received to probe whether the listener recovered.
+     */
+    HALF_OPEN,
+
+    /**
+     * The listener is failing, no records are received.
+     */
+    OPEN
+}
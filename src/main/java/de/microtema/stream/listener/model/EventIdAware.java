@@ -8,4 +8,15 @@ public interface EventIdAware {
     String getEventId();
 
     Long getId();
+
+    /**
+     * Key of the entity this event belongs to. Events with the same key are executed in order by partitioned listeners.
+     * Defaults to the event id, so every event is its own partition: override it, or set a
+     * {@link de.microtema.stream.listener.listener.PartitionKeyExtractor}, to keep the events of an aggregate in order.
+     *
+     * @return String
+     */
+    default String getPartitionKey() {
+        return getEventId();
+    }
 }
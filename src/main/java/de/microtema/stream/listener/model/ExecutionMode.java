@@ -0,0 +1,23 @@
+package de.microtema.stream.listener.model;
+
+/**
+ * Threads executing the records of a concurrent endpoint.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Dedicated, bounded pool of platform threads.
+     */
+    PLATFORM,
+
+    /**
+     * One virtual thread per record (Java 21+), falls back to {@link #PLATFORM} on older runtimes.
+     */
+    VIRTUAL,
+
+    /**
+     * Records are hashed by their partition key onto {@code concurrency} serial lanes:
+     * parallel across keys, ordered within a key.
+     */
+    PARTITIONED
+}
@@ -1,11 +1,17 @@
 package de.microtema.stream.listener.model;
 
 import de.microtema.stream.listener.converter.RecordConverter;
+import de.microtema.stream.listener.listener.PartitionKeyExtractor;
 import de.microtema.stream.listener.listener.RecordFilterStrategy;
 import de.microtema.stream.listener.listener.StreamEventListenerErrorHandler;
 import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
+import de.microtema.stream.listener.support.StreamListenerInvoker;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.Properties;
 
 
@@ -18,19 +24,113 @@ public class StreamListenerEndpoint<T extends EventIdAware> {
     private String beanName;
     private boolean batch;
     private String topic;
-    private String cron = "0 */1 * ? * *";
+    private String cron;
     private boolean autoStartup;
-    private boolean concurrency;
+
+    /**
+     * concurrency – the number of worker threads, one means records are executed on the listener thread
+     */
+    private int concurrency = 1;
+
+    /**
+     * queueCapacity – the max number of records queued for the worker threads
+     */
+    private int queueCapacity = 1;
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+
+    /**
+     * batchSize – the max number of records per receive, adapted between minBatchSize and maxBatchSize
+     */
+    private volatile int batchSize = 100;
+    private int minBatchSize = 100;
+    private int maxBatchSize = 100;
+
+    /**
+     * targetCycleTime – the max time in millis to receive, execute and commit a batch before the batch size shrinks
+     */
+    private long targetCycleTime = 1000;
 
     /**
      * delay – the time from now to delay execution
      */
     private long delay = 0;
+
+    /**
+     * maxDelay – the max time between two polls of an idle endpoint
+     */
+    private long maxDelay = 30000;
+
+    /**
+     * prefetch – the number of batches received ahead of execution
+     */
+    private int prefetch = 0;
+
+    /**
+     * chunkSize – the max number of records pulled from the data provider and executed at once
+     */
+    private int chunkSize = 0;
+
+    /**
+     * commitSize – the max number of responses merged into one commit
+     */
+    private int commitSize = 0;
+
+    /**
+     * commitDelay – the max time in millis a response waits to be merged
+     */
+    private long commitDelay = 500;
+
+    /**
+     * maxAttempts – the number of invocations of a failing record before it is marked as error
+     */
+    private int maxAttempts = 1;
+
+    /**
+     * retryDelay – the backoff in millis before the first retry, doubled for each further retry up to retryMaxDelay
+     */
+    private long retryDelay = 100;
+    private long retryMaxDelay = 10000;
+    private Class<? extends Throwable>[] retryableExceptions;
+
+    /**
+     * quarantineAfter – the number of failed deliveries of an event before it is quarantined, zero disables the quarantine
+     */
+    private int quarantineAfter = 0;
+
+    /**
+     * maxBisectInvocations – the number of listener invocations to isolate the failing records of a failed batch, zero disables the bisection
+     */
+    private int maxBisectInvocations = 0;
+
+    /**
+     * weight – the share of the scheduler threads relative to the other endpoints
+     */
+    private int weight = 1;
+
+    /**
+     * leaseRenewInterval – the interval in millis the leases of records in flight are extended, zero disables the heartbeat
+     */
+    private long leaseRenewInterval = 0;
+
+    /**
+     * dedupSize – the number of processed event ids kept to skip redelivered events, zero disables the deduplication
+     */
+    private int dedupSize = 0;
+    private long dedupTtl = 3600000;
+    private boolean dedupFilter;
+
+    /**
+     * failureRateThreshold – the percentage of failed records at which the circuit opens, zero disables the circuit breaker
+     */
+    private int failureRateThreshold = 0;
+    private long circuitOpenTime = 60000;
     private Object[] methodParameters;
+    private StreamListenerInvoker invoker;
     private Class<T> recordType;
     private Properties consumerProperties;
     private StreamEventListenerErrorHandler<T> errorHandler;
     private RecordFilterStrategy<T> recordFilterStrategy;
+    private PartitionKeyExtractor<T> partitionKeyExtractor;
     private RecordConverter<T> recordConverter;
     private StreamListenerDataProvider<T> dataProvider;
 
@@ -90,12 +190,37 @@ public class StreamListenerEndpoint<T extends EventIdAware> {
         this.topic = topic;
     }
 
+    /**
+     * @return the cron expression the max delay was set from, null by default
+     * @deprecated polls are no longer triggered by a cron, use {@link #getMaxDelay()}
+     */
+    @Deprecated
     public String getCron() {
         return cron;
     }
 
+    /**
+     * Set the max delay to the interval between two executions of the cron expression.
+     *
+     * @param cron may be null
+     * @deprecated polls are no longer triggered by a cron, use {@link #setMaxDelay(long)}
+     */
+    @Deprecated
     public void setCron(String cron) {
+
         this.cron = cron;
+
+        if (!StringUtils.hasText(cron)) {
+            return;
+        }
+
+        var cronExpression = CronExpression.parse(cron);
+        var next = cronExpression.next(ZonedDateTime.now());
+        var afterNext = next == null ? null : cronExpression.next(next);
+
+        if (afterNext != null) {
+            setMaxDelay(Duration.between(next, afterNext).toMillis());
+        }
     }
 
     public boolean isAutoStartup() {
@@ -106,14 +231,30 @@ public class StreamListenerEndpoint<T extends EventIdAware> {
         this.autoStartup = autoStartup;
     }
 
-    public boolean isConcurrency() {
+    public int getConcurrency() {
         return concurrency;
     }
 
-    public void setConcurrency(boolean concurrency) {
+    public void setConcurrency(int concurrency) {
         this.concurrency = concurrency;
     }
 
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
     public Object[] getMethodParameters() {
         return methodParameters;
     }
@@ -122,6 +263,14 @@ public class StreamListenerEndpoint<T extends EventIdAware> {
         this.methodParameters = methodParameters;
     }
 
+    public StreamListenerInvoker getInvoker() {
+        return invoker;
+    }
+
+    public void setInvoker(StreamListenerInvoker invoker) {
+        this.invoker = invoker;
+    }
+
     public Class<T> getRecordType() {
         return recordType;
     }
@@ -154,6 +303,14 @@ public class StreamListenerEndpoint<T extends EventIdAware> {
         this.recordFilterStrategy = recordFilterStrategy;
     }
 
+    public PartitionKeyExtractor<T> getPartitionKeyExtractor() {
+        return partitionKeyExtractor;
+    }
+
+    public void setPartitionKeyExtractor(PartitionKeyExtractor<T> partitionKeyExtractor) {
+        this.partitionKeyExtractor = partitionKeyExtractor;
+    }
+
     public RecordConverter<T> getRecordConverter() {
         return recordConverter;
     }
@@ -170,6 +327,38 @@ public class StreamListenerEndpoint<T extends EventIdAware> {
         this.dataProvider = dataProvider;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public void setMinBatchSize(int minBatchSize) {
+        this.minBatchSize = minBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public long getTargetCycleTime() {
+        return targetCycleTime;
+    }
+
+    public void setTargetCycleTime(long targetCycleTime) {
+        this.targetCycleTime = targetCycleTime;
+    }
+
     public long getDelay() {
         return delay;
     }
@@ -177,4 +366,148 @@ public class StreamListenerEndpoint<T extends EventIdAware> {
     public void setDelay(long delay) {
         this.delay = delay;
     }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getCommitSize() {
+        return commitSize;
+    }
+
+    public void setCommitSize(int commitSize) {
+        this.commitSize = commitSize;
+    }
+
+    public long getCommitDelay() {
+        return commitDelay;
+    }
+
+    public void setCommitDelay(long commitDelay) {
+        this.commitDelay = commitDelay;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public long getRetryMaxDelay() {
+        return retryMaxDelay;
+    }
+
+    public void setRetryMaxDelay(long retryMaxDelay) {
+        this.retryMaxDelay = retryMaxDelay;
+    }
+
+    public Class<? extends Throwable>[] getRetryableExceptions() {
+        return retryableExceptions;
+    }
+
+    public void setRetryableExceptions(Class<? extends Throwable>[] retryableExceptions) {
+        this.retryableExceptions = retryableExceptions;
+    }
+
+    public int getQuarantineAfter() {
+        return quarantineAfter;
+    }
+
+    public void setQuarantineAfter(int quarantineAfter) {
+        this.quarantineAfter = quarantineAfter;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public long getCircuitOpenTime() {
+        return circuitOpenTime;
+    }
+
+    public void setCircuitOpenTime(long circuitOpenTime) {
+        this.circuitOpenTime = circuitOpenTime;
+    }
+
+    public int getMaxBisectInvocations() {
+        return maxBisectInvocations;
+    }
+
+    public void setMaxBisectInvocations(int maxBisectInvocations) {
+        this.maxBisectInvocations = maxBisectInvocations;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public long getLeaseRenewInterval() {
+        return leaseRenewInterval;
+    }
+
+    public void setLeaseRenewInterval(long leaseRenewInterval) {
+        this.leaseRenewInterval = leaseRenewInterval;
+    }
+
+    public int getDedupSize() {
+        return dedupSize;
+    }
+
+    public void setDedupSize(int dedupSize) {
+        this.dedupSize = dedupSize;
+    }
+
+    public long getDedupTtl() {
+        return dedupTtl;
+    }
+
+    public void setDedupTtl(long dedupTtl) {
+        this.dedupTtl = dedupTtl;
+    }
+
+    public boolean isDedupFilter() {
+        return dedupFilter;
+    }
+
+    public void setDedupFilter(boolean dedupFilter) {
+        this.dedupFilter = dedupFilter;
+    }
 }
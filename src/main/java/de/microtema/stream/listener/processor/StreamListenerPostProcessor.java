@@ -2,15 +2,19 @@ package de.microtema.stream.listener.processor;
 
 import de.microtema.stream.listener.annotation.StreamListener;
 import de.microtema.stream.listener.converter.RecordConverter;
+import de.microtema.stream.listener.listener.PartitionKeyExtractor;
 import de.microtema.stream.listener.listener.RecordFilterStrategy;
 import de.microtema.stream.listener.listener.StreamEventListenerErrorHandler;
 import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.ExecutionMode;
 import de.microtema.stream.listener.model.StreamListenerEndpoint;
 import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
 import de.microtema.stream.listener.publisher.StreamEventPublisher;
+import de.microtema.stream.listener.support.StreamListenerInvoker;
 import org.apache.commons.lang3.Conversion;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.*;
@@ -19,8 +23,10 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.expression.StandardBeanExpressionResolver;
 import org.springframework.core.MethodIntrospector;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.log.LogAccessor;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
@@ -82,11 +88,43 @@ public class StreamListenerPostProcessor implements DestructionAwareBeanPostProc
 
         var methods = MethodIntrospector.selectMethods(targetClass, (MethodIntrospector.MetadataLookup<StreamListener>) it -> AnnotatedElementUtils.findMergedAnnotation(it, StreamListener.class));
 
-        methods.forEach((method, streamListener) -> streamEventPublisher.registerStreamListenerEndpoint(createStreamListenerEndpoint(method, bean, beanName, streamListener)));
+        methods.forEach((method, streamListener) -> streamEventPublisher.registerStreamListenerEndpoints(createStreamListenerEndpoints(method, bean, beanName, streamListener)));
 
         return bean;
     }
 
+    /**
+     * Create one endpoint per topic of the listener, so each topic has its own batch size, backoff and circuit.
+     * The endpoint ids of a multi topic listener are suffixed by the topic.
+     */
+    protected List<StreamListenerEndpoint> createStreamListenerEndpoints(Method method, Object bean, String beanName, StreamListener streamListener) {
+
+        var topics = getEndpointTopics(streamListener);
+
+        var endpoint = createStreamListenerEndpoint(method, bean, beanName, streamListener);
+
+        if (topics.size() == 1) {
+            return List.of(endpoint);
+        }
+
+        var endpoints = new ArrayList<StreamListenerEndpoint>();
+
+        for (var topic : topics) {
+
+            var topicEndpoint = new StreamListenerEndpoint<>();
+
+            // NOTE: The deprecated cron would recompute the max delay, depending on the order properties are copied in
+            BeanUtils.copyProperties(endpoint, topicEndpoint, "cron");
+
+            topicEndpoint.setId(endpoint.getId() + "-" + topic);
+            topicEndpoint.setTopic(topic);
+
+            endpoints.add(topicEndpoint);
+        }
+
+        return endpoints;
+    }
+
     protected  <T extends EventIdAware> StreamListenerEndpoint<T> createStreamListenerEndpoint(Method method, Object bean, String beanName, StreamListener streamListener) {
 
         var endpoint = new StreamListenerEndpoint<T>();
@@ -98,30 +136,96 @@ public class StreamListenerPostProcessor implements DestructionAwareBeanPostProc
         endpoint.setId(getEndpointId(streamListener, beanName));
         endpoint.setGroupId(getEndpointGroupId(streamListener, endpoint.getId()));
 
-        // NOTE: We support only one topic per consumer.
-        endpoint.setTopic(getEndpointTopic(streamListener));
+        // NOTE: One endpoint per topic, see createStreamListenerEndpoints
+        endpoint.setTopic(getEndpointTopics(streamListener).get(0));
 
         endpoint.setErrorHandler(resolveErrorHandler(streamListener));
         endpoint.setRecordFilterStrategy(resolveRecordFilterStrategy(streamListener));
+        endpoint.setPartitionKeyExtractor(resolvePartitionKeyExtractor(streamListener));
         endpoint.setRecordConverter(resolveContentTypeConverter(streamListener));
         endpoint.setDataProvider(resolveDataProvider(streamListener));
         endpoint.setConsumerProperties(resolveStreamProperties(streamListener.properties()));
 
         endpoint.setBatch(isBatchConsumer(method, streamListener));
         endpoint.setAutoStartup(isAutoStartup(streamListener));
-        endpoint.setConcurrency(isConcurrency(streamListener));
+        endpoint.setConcurrency(getConcurrency(streamListener));
+        endpoint.setQueueCapacity(getQueueCapacity(streamListener, endpoint.getConcurrency()));
+        endpoint.setExecutionMode(getExecutionMode(streamListener));
+        endpoint.setMinBatchSize(getMinBatchSize(streamListener));
+        endpoint.setMaxBatchSize(Math.max(endpoint.getMinBatchSize(), getMaxBatchSize(streamListener)));
+        endpoint.setBatchSize(Math.min(Math.max(getBatchSize(), endpoint.getMinBatchSize()), endpoint.getMaxBatchSize()));
+        endpoint.setTargetCycleTime(getTargetCycleTime(streamListener));
         endpoint.setDelay(getDelay(streamListener));
+        endpoint.setMaxDelay(getMaxDelay(streamListener));
+        endpoint.setPrefetch(getPrefetch(streamListener));
+        endpoint.setChunkSize(getChunkSize(streamListener));
+        endpoint.setCommitSize(getCommitSize(streamListener));
+        endpoint.setCommitDelay(getCommitDelay(streamListener));
+        endpoint.setMaxAttempts(getMaxAttempts(streamListener));
+        endpoint.setRetryDelay(getRetryDelay(streamListener));
+        endpoint.setRetryMaxDelay(getRetryMaxDelay(streamListener));
+        endpoint.setRetryableExceptions(streamListener.retryOn());
+        endpoint.setQuarantineAfter(getQuarantineAfter(streamListener));
+        endpoint.setMaxBisectInvocations(getMaxBisectInvocations(streamListener));
+        endpoint.setFailureRateThreshold(getFailureRateThreshold(streamListener));
+        endpoint.setCircuitOpenTime(getCircuitOpenTime(streamListener));
+        endpoint.setWeight(getWeight(streamListener));
+        endpoint.setLeaseRenewInterval(getLeaseRenewInterval(streamListener));
+        endpoint.setDedupSize(getDedupSize(streamListener));
+        endpoint.setDedupTtl(getDedupTtl(streamListener));
+        endpoint.setDedupFilter(isDedupFilter(streamListener));
         endpoint.setMethodParameters(resolveMethodParameters(method));
+        endpoint.setInvoker(StreamListenerInvoker.of(bean, method, endpoint.getMethodParameters()));
         endpoint.setRecordType(resolveRecordTypeReference(method));
 
+        validateExecutionMode(endpoint);
+
         return endpoint;
     }
 
+    /**
+     * NOTE: Execution modes only apply to record listeners with concurrency > 1, all others execute on the listener thread.
+     */
+    private void validateExecutionMode(StreamListenerEndpoint<?> endpoint) {
+
+        if (endpoint.getExecutionMode() == ExecutionMode.PLATFORM) {
+            return;
+        }
+
+        if (endpoint.isBatch() || endpoint.getConcurrency() < 2) {
+            log.warn(() -> String.format("Execution mode [%s] of [%s][%s] endpoint is ignored, it requires a record listener with concurrency > 1", endpoint.getExecutionMode(), endpoint.getGroupId(), endpoint.getId()));
+
+            return;
+        }
+
+        if (endpoint.getExecutionMode() == ExecutionMode.PARTITIONED && Objects.isNull(endpoint.getPartitionKeyExtractor()) && !hasPartitionKey(endpoint.getRecordType())) {
+            log.warn(() -> String.format("Records of [%s][%s] endpoint are partitioned by their event id and not ordered per entity, set a partitionKeyExtractor or override EventIdAware#getPartitionKey", endpoint.getGroupId(), endpoint.getId()));
+        }
+    }
+
+    /**
+     * @return true if the record type overrides the default partition key, the event id
+     */
+    private boolean hasPartitionKey(Class<?> recordType) {
+
+        if (Objects.isNull(recordType)) {
+            return false;
+        }
+
+        var method = ReflectionUtils.findMethod(recordType, "getPartitionKey");
+
+        return Objects.nonNull(method) && method.getDeclaringClass() != EventIdAware.class;
+    }
+
     private <T> Class<T> resolveRecordTypeReference(Method method) {
 
-        Class<?>[] parameterTypes = method.getParameterTypes();
+        var parameterType = ResolvableType.forMethodParameter(method, 0);
 
-        return (Class<T>) parameterTypes[0];
+        if (Collection.class.isAssignableFrom(parameterType.toClass())) {
+            return (Class<T>) parameterType.asCollection().resolveGeneric(0);
+        }
+
+        return (Class<T>) parameterType.toClass();
     }
 
     /**
@@ -161,18 +265,97 @@ public class StreamListenerPostProcessor implements DestructionAwareBeanPostProc
         return Boolean.parseBoolean(autoStartup);
     }
 
-    private boolean isConcurrency(StreamListener streamListener) {
+    private int getConcurrency(StreamListener streamListener) {
 
         if (StringUtils.hasText(streamListener.concurrency())) {
 
-            var concurrency = resolveExpressionAsString(streamListener.concurrency(), "concurrency");
+            var concurrency = resolveExpression(streamListener.concurrency());
 
-            return Boolean.parseBoolean(concurrency);
+            if (concurrency instanceof Number number) {
+                return Math.max(1, number.intValue());
+            }
+
+            var value = resolveExpressionAsString(streamListener.concurrency(), "concurrency");
+
+            if (StringUtils.hasText(value)) {
+                return parseConcurrency(value);
+            }
         }
 
         var concurrency = resolveExpressionAsString("${stream-listener.concurrency}", "stream-listener.concurrency");
 
-        return Boolean.parseBoolean(concurrency);
+        if (!StringUtils.hasText(concurrency)) {
+            return 1;
+        }
+
+        return parseConcurrency(concurrency);
+    }
+
+    /**
+     * NOTE: The former boolean flag is still accepted, true maps to the number of available processors.
+     */
+    private int parseConcurrency(String concurrency) {
+
+        if (Boolean.TRUE.toString().equalsIgnoreCase(concurrency)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        if (Boolean.FALSE.toString().equalsIgnoreCase(concurrency)) {
+            return 1;
+        }
+
+        return Math.max(1, Integer.parseInt(concurrency.trim()));
+    }
+
+    private int getQueueCapacity(StreamListener streamListener, int concurrency) {
+
+        return Math.max(1, (int) resolveNumber(streamListener.queueCapacity(), "queueCapacity", "stream-listener.queue-capacity", concurrency));
+    }
+
+    private ExecutionMode getExecutionMode(StreamListener streamListener) {
+
+        if (StringUtils.hasText(streamListener.executionMode())) {
+
+            var executionMode = resolveExpressionAsString(streamListener.executionMode(), "executionMode");
+
+            if (StringUtils.hasText(executionMode)) {
+                return ExecutionMode.valueOf(executionMode.trim().toUpperCase());
+            }
+        }
+
+        var executionMode = resolveExpressionAsString("${stream-listener.execution-mode}", "stream-listener.execution-mode");
+
+        if (!StringUtils.hasText(executionMode)) {
+            return ExecutionMode.PLATFORM;
+        }
+
+        return ExecutionMode.valueOf(executionMode.trim().toUpperCase());
+    }
+
+    private int getBatchSize() {
+
+        var limit = resolveExpressionAsString("${stream-listener.limit}", "stream-listener.limit");
+
+        if (!StringUtils.hasText(limit)) {
+            return 100;
+        }
+
+        return Integer.parseInt(limit);
+    }
+
+    private int getMinBatchSize(StreamListener streamListener) {
+
+        return (int) resolveNumber(streamListener.minBatchSize(), "minBatchSize", "stream-listener.min-batch-size", getBatchSize());
+    }
+
+    private int getMaxBatchSize(StreamListener streamListener) {
+
+        return (int) resolveNumber(streamListener.maxBatchSize(), "maxBatchSize", "stream-listener.max-batch-size", getBatchSize());
+    }
+
+    private long getTargetCycleTime(StreamListener streamListener) {
+
+        return resolveNumber(streamListener.targetCycleTime(), "targetCycleTime", "stream-listener.target-cycle-time", 1000);
     }
 
     private long getDelay(StreamListener streamListener) {
@@ -195,6 +378,125 @@ public class StreamListenerPostProcessor implements DestructionAwareBeanPostProc
         return Long.parseLong(delay);
     }
 
+    private long getMaxDelay(StreamListener streamListener) {
+
+        return resolveNumber(streamListener.maxDelay(), "maxDelay", "stream-listener.max-delay", 30000);
+    }
+
+    private int getPrefetch(StreamListener streamListener) {
+
+        return (int) resolveNumber(streamListener.prefetch(), "prefetch", "stream-listener.prefetch", 0);
+    }
+
+    private int getChunkSize(StreamListener streamListener) {
+
+        return (int) resolveNumber(streamListener.chunkSize(), "chunkSize", "stream-listener.chunk-size", 0);
+    }
+
+    private int getCommitSize(StreamListener streamListener) {
+
+        return (int) resolveNumber(streamListener.commitSize(), "commitSize", "stream-listener.commit-size", 0);
+    }
+
+    private long getCommitDelay(StreamListener streamListener) {
+
+        return resolveNumber(streamListener.commitDelay(), "commitDelay", "stream-listener.commit-delay", 500);
+    }
+
+    private int getMaxAttempts(StreamListener streamListener) {
+
+        return Math.max(1, (int) resolveNumber(streamListener.maxAttempts(), "maxAttempts", "stream-listener.max-attempts", 1));
+    }
+
+    private long getRetryDelay(StreamListener streamListener) {
+
+        return resolveNumber(streamListener.retryDelay(), "retryDelay", "stream-listener.retry-delay", 100);
+    }
+
+    private long getRetryMaxDelay(StreamListener streamListener) {
+
+        return resolveNumber(streamListener.retryMaxDelay(), "retryMaxDelay", "stream-listener.retry-max-delay", 10000);
+    }
+
+    private int getQuarantineAfter(StreamListener streamListener) {
+
+        return (int) resolveNumber(streamListener.quarantineAfter(), "quarantineAfter", "stream-listener.quarantine-after", 0);
+    }
+
+    private int getMaxBisectInvocations(StreamListener streamListener) {
+
+        return Math.max(0, (int) resolveNumber(streamListener.maxBisectInvocations(), "maxBisectInvocations", "stream-listener.max-bisect-invocations", 0));
+    }
+
+    private int getFailureRateThreshold(StreamListener streamListener) {
+
+        var failureRateThreshold = (int) resolveNumber(streamListener.failureRateThreshold(), "failureRateThreshold", "stream-listener.failure-rate-threshold", 0);
+
+        return Math.min(100, Math.max(0, failureRateThreshold));
+    }
+
+    private int getDedupSize(StreamListener streamListener) {
+
+        return Math.max(0, (int) resolveNumber(streamListener.dedupSize(), "dedupSize", "stream-listener.dedup-size", 0));
+    }
+
+    private long getDedupTtl(StreamListener streamListener) {
+
+        return resolveNumber(streamListener.dedupTtl(), "dedupTtl", "stream-listener.dedup-ttl", 3600000);
+    }
+
+    private boolean isDedupFilter(StreamListener streamListener) {
+
+        if (StringUtils.hasText(streamListener.dedupFilter())) {
+
+            var dedupFilter = resolveExpressionAsString(streamListener.dedupFilter(), "dedupFilter");
+
+            return Boolean.parseBoolean(dedupFilter);
+        }
+
+        var dedupFilter = resolveExpressionAsString("${stream-listener.dedup-filter}", "stream-listener.dedup-filter");
+
+        return Boolean.parseBoolean(dedupFilter);
+    }
+
+    private long getLeaseRenewInterval(StreamListener streamListener) {
+
+        return Math.max(0, resolveNumber(streamListener.leaseRenewInterval(), "leaseRenewInterval", "stream-listener.lease-renew-interval", 0));
+    }
+
+    private int getWeight(StreamListener streamListener) {
+
+        return Math.max(1, (int) resolveNumber(streamListener.weight(), "weight", "stream-listener.weight", 1));
+    }
+
+    private long getCircuitOpenTime(StreamListener streamListener) {
+
+        return resolveNumber(streamListener.circuitOpenTime(), "circuitOpenTime", "stream-listener.circuit-open-time", 60000);
+    }
+
+    /**
+     * Resolve a numeric attribute, falling back to the given property and then to the default value.
+     */
+    private long resolveNumber(String value, String attribute, String property, long defaultValue) {
+
+        if (StringUtils.hasText(value)) {
+
+            var number = resolveExpressionAsString(value, attribute);
+
+            if (StringUtils.hasText(number)) {
+                return Long.parseLong(number);
+            }
+        }
+
+        var number = resolveExpressionAsString("${" + property + "}", property);
+
+        if (!StringUtils.hasText(number)) {
+            return defaultValue;
+        }
+
+        return Long.parseLong(number);
+    }
+
     private Properties resolveStreamProperties(String[] propertyStrings) {
 
         var properties = new Properties();
@@ -296,34 +598,50 @@ public class StreamListenerPostProcessor implements DestructionAwareBeanPostProc
     }
 
 
-    private String getEndpointTopic(StreamListener streamListener) {
+    private List<String> getEndpointTopics(StreamListener streamListener) {
 
         var topics = streamListener.topics();
 
-        String topic = null;
+        var endpointTopics = new ArrayList<String>();
 
-        if (topics.length > 0) {
-            topic = topics[0];
-        }
+        for (var topic : topics) {
+
+            if (StringUtils.hasText(topic)) {
 
-        if (StringUtils.hasText(topic)) {
+                topic = resolveExpressionAsString(topic, "topics");
+            }
 
-            topic = resolveExpressionAsString(topic, "topics");
+            addTopics(endpointTopics, topic);
         }
 
-        if (StringUtils.hasText(topic)) {
+        if (!endpointTopics.isEmpty()) {
 
-            return topic;
+            return endpointTopics;
         }
 
-        topic = resolveExpressionAsString("${stream-listener.topics}", "stream-listener.topics");
+        addTopics(endpointTopics, resolveExpressionAsString("${stream-listener.topics}", "stream-listener.topics"));
 
-        if (StringUtils.hasText(topic)) {
+        if (!endpointTopics.isEmpty()) {
 
-            return topic;
+            return endpointTopics;
         }
 
-        return topics[0];
+        return Collections.singletonList(topics.length > 0 ? topics[0] : null);
+    }
+
+    /**
+     * Add the comma separated topics, each topic once.
+     */
+    private void addTopics(List<String> endpointTopics, String topics) {
+
+        for (var topic : StringUtils.commaDelimitedListToStringArray(topics)) {
+
+            topic = topic.trim();
+
+            if (StringUtils.hasText(topic) && !endpointTopics.contains(topic)) {
+                endpointTopics.add(topic);
+            }
+        }
     }
 
     private static String generateHash() {
@@ -413,6 +731,26 @@ public class StreamListenerPostProcessor implements DestructionAwareBeanPostProc
         return null;
     }
 
+    @SuppressWarnings("unchecked")
+    private <T extends EventIdAware> PartitionKeyExtractor<T> resolvePartitionKeyExtractor(StreamListener streamListener) {
+
+        var extractorName = streamListener.partitionKeyExtractor();
+
+        var partitionKeyExtractor = resolveExpression(extractorName);
+
+        if (partitionKeyExtractor instanceof PartitionKeyExtractor extractor) {
+            return extractor;
+        }
+
+        var partitionKeyExtractorBeanName = resolveExpressionAsString(extractorName, "partitionKeyExtractor");
+
+        if (StringUtils.hasText(partitionKeyExtractorBeanName)) {
+            return beanFactory.getBean(partitionKeyExtractorBeanName, PartitionKeyExtractor.class);
+        }
+
+        return null;
+    }
+
     private Object resolveExpression(String value) {
 
         var resolve = resolve(value);
@@ -11,6 +11,8 @@ public class DataProviderConfiguration {
 
     private long lockDuration = 60000;
 
+    private long timeout = 30000;
+
     public String getBaseUrl() {
         return baseUrl;
     }
@@ -34,4 +36,12 @@ public class DataProviderConfiguration {
     public void setLockDuration(long lockDuration) {
         this.lockDuration = lockDuration;
     }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
 }
@@ -0,0 +1,24 @@
+package de.microtema.stream.listener.provider.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.microtema.stream.listener.provider.service.HttpStreamListenerDataProvider;
+import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(name = "com.fasterxml.jackson.databind.ObjectMapper")
+@ConditionalOnProperty(prefix = "stream-listener", name = "base-url")
+public class HttpDataProviderConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(StreamListenerDataProvider.class)
+    public HttpStreamListenerDataProvider<?> httpStreamListenerDataProvider(DataProviderConfiguration dataProviderConfiguration, ObjectProvider<ObjectMapper> objectMapper) {
+
+        return new HttpStreamListenerDataProvider<>(dataProviderConfiguration, objectMapper.getIfAvailable(ObjectMapper::new));
+    }
+}
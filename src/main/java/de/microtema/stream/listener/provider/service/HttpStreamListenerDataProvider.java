@@ -0,0 +1,337 @@
+package de.microtema.stream.listener.provider.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.config.DataProviderConfiguration;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import de.microtema.stream.listener.support.ResponseStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reference data provider pulling and committing records over HTTP, configured by {@link DataProviderConfiguration}.
+ * <ul>
+ * <li>receive: {@code GET {baseUrl}/{topic}/events?endpointId=&groupId=&limit=&lockDuration=} responds a JSON array of records</li>
+ * <li>commit: {@code POST {baseUrl}/{topic}/events/commit?endpointId=&groupId=} with
+ * {@code {"ok":[first,last,...],"skipped":[ids],"quarantined":[ids],"errors":[{"message":"...","ids":[ids]}]}},
+ * OK ids are range encoded</li>
+ * <li>extendLease: {@code POST {baseUrl}/{topic}/events/lease?endpointId=&groupId=&lockDuration=} with a JSON array of ids</li>
+ * </ul>
+ * One {@link HttpClient} with pooled keep-alive connections is shared by all endpoints. Responses are requested gzip
+ * compressed and parsed as a stream straight into {@link StreamListenerEndpoint#getRecordType()}, ignoring unknown
+ * properties, so chunked endpoints hold one chunk at a time. Commits are sent synchronously and a failed commit throws,
+ * so the commit metrics, the lease heartbeat and the failure handling of the commit stage see the outcome; commits
+ * are taken off the listener thread through {@link StreamListenerEndpoint#getCommitSize()}.
+ *
+ * @param <T> record type
+ */
+public class HttpStreamListenerDataProvider<T extends EventIdAware> implements StreamListenerDataProvider<T> {
+
+    private final DataProviderConfiguration configuration;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Map<Class<?>, ObjectReader> objectReaders = new ConcurrentHashMap<>();
+
+    public HttpStreamListenerDataProvider(DataProviderConfiguration configuration, ObjectMapper objectMapper) {
+        this(configuration, objectMapper, HttpClient.newBuilder().connectTimeout(Duration.ofMillis(configuration.getTimeout())).build());
+    }
+
+    public HttpStreamListenerDataProvider(DataProviderConfiguration configuration, ObjectMapper objectMapper, HttpClient httpClient) {
+        this.configuration = configuration;
+        this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public List<T> receive(StreamListenerEndpoint<T> endpoint) {
+
+        try (var recordSource = open(endpoint)) {
+
+            var records = new ArrayList<T>(endpoint.getBatchSize());
+
+            recordSource.forEachRemaining(records::add);
+
+            return records;
+        }
+    }
+
+    @Override
+    public RecordSource<T> open(StreamListenerEndpoint<T> endpoint) {
+
+        var uri = getUri(endpoint, "events", "&limit=" + endpoint.getBatchSize() + "&lockDuration=" + configuration.getLockDuration());
+
+        var request = newRequest(uri)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+
+        var response = send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+        try {
+            var inputStream = getBody(response);
+
+            if (response.statusCode() == 204) {
+
+                inputStream.close();
+
+                return RecordSource.of(List.of());
+            }
+
+            MappingIterator<T> records = getObjectReader(endpoint).readValues(inputStream);
+
+            return new HttpRecordSource<>(records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read records from [" + uri + "]", e);
+        }
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<T> endpoint, List<ResponseStatus> responses) {
+
+        commit(endpoint, CommitBatch.of(responses));
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<T> endpoint, CommitBatch commitBatch) {
+
+        var uri = getUri(endpoint, "events/commit", "");
+
+        var request = newRequest(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writeCommitBatch(commitBatch)))
+                .build();
+
+        send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    @Override
+    public void extendLease(StreamListenerEndpoint<T> endpoint, long[] ids) {
+
+        var uri = getUri(endpoint, "events/lease", "&lockDuration=" + configuration.getLockDuration());
+
+        var request = newRequest(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(writeIds(ids)))
+                .build();
+
+        send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private ObjectReader getObjectReader(StreamListenerEndpoint<T> endpoint) {
+
+        var recordType = endpoint.getRecordType();
+
+        if (recordType == null) {
+            throw new IllegalStateException("Unable to resolve record type of [" + endpoint.getId() + "] endpoint");
+        }
+
+        return objectReaders.computeIfAbsent(recordType, it -> objectMapper.readerFor(it).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+    }
+
+    private URI getUri(StreamListenerEndpoint<T> endpoint, String path, String query) {
+
+        var baseUrl = configuration.getBaseUrl();
+
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+
+        return URI.create(baseUrl + "/" + encode(endpoint.getTopic()) + "/" + path + "?endpointId=" + encode(endpoint.getId()) + "&groupId=" + encode(endpoint.getGroupId()) + query);
+    }
+
+    private HttpRequest.Builder newRequest(URI uri) {
+
+        return HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(configuration.getTimeout()));
+    }
+
+    private <B> HttpResponse<B> send(HttpRequest request, HttpResponse.BodyHandler<B> bodyHandler) {
+
+        HttpResponse<B> response;
+
+        try {
+            response = httpClient.send(request, bodyHandler);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to call [" + request.uri() + "]", e);
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while calling [" + request.uri() + "]", e);
+        }
+
+        if (!isSuccessful(response)) {
+
+            if (response.body() instanceof InputStream inputStream) {
+                closeQuietly(inputStream);
+            }
+
+            throw new IllegalStateException("Unable to call [" + request.uri() + "]. Status: " + response.statusCode());
+        }
+
+        return response;
+    }
+
+    private static boolean isSuccessful(HttpResponse<?> response) {
+
+        return response.statusCode() / 100 == 2;
+    }
+
+    private static InputStream getBody(HttpResponse<InputStream> response) throws IOException {
+
+        var contentEncoding = response.headers().firstValue("Content-Encoding").orElse("");
+
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(response.body());
+        }
+
+        return response.body();
+    }
+
+    private byte[] writeCommitBatch(CommitBatch commitBatch) {
+
+        var outputStream = new ByteArrayOutputStream(64 + commitBatch.size() * 4);
+
+        try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+
+            generator.writeStartObject();
+
+            writeArray(generator, "ok", commitBatch.getOkRanges());
+            writeArray(generator, "skipped", commitBatch.getIds(ResponseState.SKIPPED));
+            writeArray(generator, "quarantined", commitBatch.getIds(ResponseState.QUARANTINED));
+
+            generator.writeArrayFieldStart("errors");
+
+            for (var entry : getErrorIds(commitBatch).entrySet()) {
+
+                generator.writeStartObject();
+                generator.writeStringField("message", entry.getKey());
+
+                generator.writeFieldName("ids");
+                generator.writeStartArray();
+
+                for (var id : entry.getValue()) {
+                    generator.writeNumber(id);
+                }
+
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * @return ids of the ERROR records grouped by their error message, in batch order
+     */
+    private static Map<String, List<Long>> getErrorIds(CommitBatch commitBatch) {
+
+        var errorIds = new LinkedHashMap<String, List<Long>>();
+
+        for (int index = 0; index < commitBatch.size(); index++) {
+
+            if (commitBatch.getState(index) != ResponseState.ERROR) {
+                continue;
+            }
+
+            var errorMessage = String.valueOf(commitBatch.getErrorMessage(index));
+
+            errorIds.computeIfAbsent(errorMessage, it -> new ArrayList<>()).add(commitBatch.getId(index));
+        }
+
+        return errorIds;
+    }
+
+    private byte[] writeIds(long[] ids) {
+
+        var outputStream = new ByteArrayOutputStream(16 + ids.length * 8);
+
+        try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeArray(ids, 0, ids.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static void writeArray(JsonGenerator generator, String fieldName, long[] values) throws IOException {
+
+        generator.writeFieldName(fieldName);
+        generator.writeArray(values, 0, values.length);
+    }
+
+    private static String encode(String value) {
+
+        return URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // Ignore, the response failed anyway
+        }
+    }
+
+    /**
+     * Records parsed one by one from the response, closing the response releases the connection.
+     */
+    private static class HttpRecordSource<T> implements RecordSource<T> {
+
+        private final MappingIterator<T> records;
+
+        private HttpRecordSource(MappingIterator<T> records) {
+            this.records = records;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return records.hasNext();
+        }
+
+        @Override
+        public T next() {
+            return records.next();
+        }
+
+        @Override
+        public void close() {
+
+            try {
+                records.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package de.microtema.stream.listener.provider.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.config.DataProviderConfiguration;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import de.microtema.stream.listener.support.ResponseStatus;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Reference data provider claiming and committing rows of a database table over JDBC.
+ * The table is named after {@link StreamListenerEndpoint#getTopic()} and holds, besides the columns of the record:
+ * <pre>
+ * id            BIGINT PRIMARY KEY
+ * status        VARCHAR(16)   -- NULL until committed: OK, SKIPPED, ERROR or QUARANTINED
+ * error_message VARCHAR(4000)
+ * locked_by     VARCHAR(64)
+ * locked_until  TIMESTAMP
+ * </pre>
+ * New and failed (ERROR) rows without a valid lock are claimable. A receive claims up to
+ * {@link StreamListenerEndpoint#getBatchSize()} of them, ordered by id, for {@link DataProviderConfiguration#getLockDuration()}
+ * millis, see {@link ClaimStrategy}. Commits are written as JDBC batches in one transaction: one update per range of
+ * consecutive OK ids and one per remaining record. A failed (ERROR) row keeps a retry lease of the lock duration, so it
+ * is not claimed again at the head of the next batch. Commits and lease extensions only update rows that are still
+ * claimed by this instance, a row whose lock expired and was claimed again is left to its new owner.
+ * Lock times are taken from the clock of the instance.
+ *
+ * @param <T> record type
+ */
+public class JdbcStreamListenerDataProvider<T extends EventIdAware> implements StreamListenerDataProvider<T> {
+
+    static final int MAX_ERROR_MESSAGE_LENGTH = 4000;
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private static final String CLAIMABLE = "(status IS NULL OR status = 'ERROR') AND (locked_until IS NULL OR locked_until < ?)";
+
+    private final DataSource dataSource;
+    private final DataProviderConfiguration configuration;
+    private final ClaimStrategy claimStrategy;
+    private final RowMapper<T> rowMapper;
+
+    /**
+     * Claim id ({@code locked_by}) per row claimed by this instance and not committed yet.
+     */
+    private final Map<Long, String> claimIds = new ConcurrentHashMap<>();
+
+    public JdbcStreamListenerDataProvider(DataSource dataSource, DataProviderConfiguration configuration, ClaimStrategy claimStrategy, RowMapper<T> rowMapper) {
+        this.dataSource = dataSource;
+        this.configuration = configuration;
+        this.claimStrategy = claimStrategy;
+        this.rowMapper = rowMapper;
+    }
+
+    @Override
+    public List<T> receive(StreamListenerEndpoint<T> endpoint) {
+
+        var tableName = getTableName(endpoint);
+
+        try (var connection = dataSource.getConnection()) {
+
+            return inTransaction(connection, () -> claimStrategy == ClaimStrategy.SKIP_LOCKED
+                    ? claimSkipLocked(connection, tableName, endpoint.getBatchSize())
+                    : claimLease(connection, tableName, endpoint.getBatchSize()));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to claim records from [" + tableName + "]", e);
+        }
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<T> endpoint, List<ResponseStatus> responses) {
+
+        commit(endpoint, CommitBatch.of(responses));
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<T> endpoint, CommitBatch commitBatch) {
+
+        if (commitBatch.size() == 0) {
+            return;
+        }
+
+        var tableName = getTableName(endpoint);
+
+        try (var connection = dataSource.getConnection()) {
+
+            inTransaction(connection, () -> {
+
+                commitOkRanges(connection, tableName, commitBatch.getOkRanges());
+                commitRecords(connection, tableName, commitBatch);
+
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to commit (" + commitBatch.size() + ") response(s) to [" + tableName + "]", e);
+        } finally {
+
+            // NOTE: Rows of a failed commit stay locked until their lease expires and are claimed again
+            for (int index = 0; index < commitBatch.size(); index++) {
+                claimIds.remove(commitBatch.getId(index));
+            }
+        }
+    }
+
+    @Override
+    public void extendLease(StreamListenerEndpoint<T> endpoint, long[] ids) {
+
+        var tableName = getTableName(endpoint);
+
+        try (var connection = dataSource.getConnection()) {
+
+            inTransaction(connection, () -> {
+
+                try (var statement = connection.prepareStatement("UPDATE " + tableName + " SET locked_until = ? WHERE id = ? AND locked_by = ?")) {
+
+                    var lockedUntil = getLockedUntil();
+
+                    for (var id : ids) {
+
+                        var claimId = claimIds.get(id);
+
+                        if (Objects.isNull(claimId)) {
+                            continue;
+                        }
+
+                        statement.setTimestamp(1, lockedUntil);
+                        statement.setLong(2, id);
+                        statement.setString(3, claimId);
+                        statement.addBatch();
+                    }
+
+                    statement.executeBatch();
+                }
+
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to extend lease of (" + ids.length + ") record(s) in [" + tableName + "]", e);
+        }
+    }
+
+    /**
+     * Lock the claimable rows with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent claims skip each other's rows
+     * instead of waiting, and mark them with the lease within the same transaction.
+     * The row limit is part of the query: a driver side limit ({@code setMaxRows}) does not stop the database from
+     * locking every claimable row, e.g. PostgreSQL, so a single claim would block the whole table.
+     */
+    private List<T> claimSkipLocked(Connection connection, String tableName, int limit) throws SQLException {
+
+        var records = new ArrayList<T>(limit);
+        var ids = new ArrayList<Long>(limit);
+
+        try (var statement = connection.prepareStatement("SELECT * FROM " + tableName + " WHERE " + CLAIMABLE + " ORDER BY id FETCH FIRST ? ROWS ONLY FOR UPDATE SKIP LOCKED")) {
+
+            statement.setTimestamp(1, now());
+            statement.setInt(2, limit);
+            statement.setFetchSize(limit);
+
+            try (var resultSet = statement.executeQuery()) {
+
+                while (resultSet.next()) {
+
+                    ids.add(resultSet.getLong("id"));
+                    records.add(rowMapper.mapRow(resultSet));
+                }
+            }
+        }
+
+        if (ids.isEmpty()) {
+            return records;
+        }
+
+        var lockedBy = newClaimId();
+
+        try (var statement = connection.prepareStatement("UPDATE " + tableName + " SET locked_by = ?, locked_until = ? WHERE id = ?")) {
+
+            var lockedUntil = getLockedUntil();
+
+            for (var id : ids) {
+
+                statement.setString(1, lockedBy);
+                statement.setTimestamp(2, lockedUntil);
+                statement.setLong(3, id);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+
+        ids.forEach(id -> claimIds.put(id, lockedBy));
+
+        return records;
+    }
+
+    /**
+     * Claim the rows with a single conditional update of the lease columns, then read them back by claim id.
+     * The claim condition is repeated on the outer update, so a row claimed concurrently is not claimed twice.
+     */
+    private List<T> claimLease(Connection connection, String tableName, int limit) throws SQLException {
+
+        var lockedBy = newClaimId();
+        var now = now();
+
+        try (var statement = connection.prepareStatement("UPDATE " + tableName + " SET locked_by = ?, locked_until = ? WHERE id IN ("
+                + "SELECT id FROM " + tableName + " WHERE " + CLAIMABLE + " ORDER BY id FETCH FIRST ? ROWS ONLY) AND " + CLAIMABLE)) {
+
+            statement.setString(1, lockedBy);
+            statement.setTimestamp(2, getLockedUntil());
+            statement.setTimestamp(3, now);
+            statement.setInt(4, limit);
+            statement.setTimestamp(5, now);
+
+            if (statement.executeUpdate() == 0) {
+                return new ArrayList<>();
+            }
+        }
+
+        var records = new ArrayList<T>(limit);
+
+        try (var statement = connection.prepareStatement("SELECT * FROM " + tableName + " WHERE locked_by = ? ORDER BY id")) {
+
+            statement.setString(1, lockedBy);
+
+            try (var resultSet = statement.executeQuery()) {
+
+                while (resultSet.next()) {
+
+                    claimIds.put(resultSet.getLong("id"), lockedBy);
+                    records.add(rowMapper.mapRow(resultSet));
+                }
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * A range of consecutive OK ids may span several claims, e.g. of merged commits, so it is split into one update per claim.
+     */
+    private void commitOkRanges(Connection connection, String tableName, long[] okRanges) throws SQLException {
+
+        if (okRanges.length == 0) {
+            return;
+        }
+
+        try (var statement = connection.prepareStatement("UPDATE " + tableName + " SET status = 'OK', error_message = NULL, locked_by = NULL, locked_until = NULL WHERE id BETWEEN ? AND ? AND locked_by = ?")) {
+
+            for (int index = 0; index < okRanges.length; index += 2) {
+
+                var first = okRanges[index];
+                var last = okRanges[index + 1];
+                var claimId = claimIds.get(first);
+
+                for (var id = first + 1; id <= last; id++) {
+
+                    var nextClaimId = claimIds.get(id);
+
+                    if (!Objects.equals(claimId, nextClaimId)) {
+
+                        addOkRange(statement, first, id - 1, claimId);
+
+                        first = id;
+                        claimId = nextClaimId;
+                    }
+                }
+
+                addOkRange(statement, first, last, claimId);
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    private static void addOkRange(PreparedStatement statement, long first, long last, String claimId) throws SQLException {
+
+        if (Objects.isNull(claimId)) {
+            return;
+        }
+
+        statement.setLong(1, first);
+        statement.setLong(2, last);
+        statement.setString(3, claimId);
+        statement.addBatch();
+    }
+
+    private void commitRecords(Connection connection, String tableName, CommitBatch commitBatch) throws SQLException {
+
+        if (commitBatch.count(ResponseState.OK) == commitBatch.size()) {
+            return;
+        }
+
+        try (var statement = connection.prepareStatement("UPDATE " + tableName + " SET status = ?, error_message = ?, locked_by = NULL, locked_until = ? WHERE id = ? AND locked_by = ?")) {
+
+            // A failed row is retried after the lock duration, instead of heading the very next claim again
+            var retryAt = getLockedUntil();
+
+            for (int index = 0; index < commitBatch.size(); index++) {
+
+                var state = commitBatch.getState(index);
+                var claimId = claimIds.get(commitBatch.getId(index));
+
+                if (state == ResponseState.OK || Objects.isNull(claimId)) {
+                    continue;
+                }
+
+                statement.setString(1, state.name());
+                statement.setString(2, truncate(commitBatch.getErrorMessage(index)));
+                statement.setTimestamp(3, state == ResponseState.ERROR ? retryAt : null);
+                statement.setLong(4, commitBatch.getId(index));
+                statement.setString(5, claimId);
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+        }
+    }
+
+    private <R> R inTransaction(Connection connection, SqlCallback<R> callback) throws SQLException {
+
+        var autoCommit = connection.getAutoCommit();
+
+        connection.setAutoCommit(false);
+
+        try {
+            var result = callback.call();
+
+            connection.commit();
+
+            return result;
+        } catch (SQLException | RuntimeException e) {
+
+            connection.rollback();
+
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private Timestamp getLockedUntil() {
+
+        return new Timestamp(System.currentTimeMillis() + configuration.getLockDuration());
+    }
+
+    private static Timestamp now() {
+
+        return new Timestamp(System.currentTimeMillis());
+    }
+
+    private static String newClaimId() {
+
+        return UUID.randomUUID().toString();
+    }
+
+    private static String truncate(String errorMessage) {
+
+        if (Objects.isNull(errorMessage) || errorMessage.length() <= MAX_ERROR_MESSAGE_LENGTH) {
+            return errorMessage;
+        }
+
+        return errorMessage.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+    }
+
+    private static String getTableName(StreamListenerEndpoint<?> endpoint) {
+
+        var tableName = endpoint.getTopic();
+
+        if (Objects.isNull(tableName) || !TABLE_NAME.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("Invalid table name [" + tableName + "] of [" + endpoint.getId() + "] endpoint");
+        }
+
+        return tableName;
+    }
+
+    /**
+     * How concurrent instances claim disjoint rows.
+     */
+    public enum ClaimStrategy {
+
+        /**
+         * {@code SELECT ... FETCH FIRST n ROWS ONLY FOR UPDATE SKIP LOCKED}, e.g. PostgreSQL.
+         */
+        SKIP_LOCKED,
+
+        /**
+         * Atomic conditional update of the lease columns, for databases without {@code SKIP LOCKED}.
+         */
+        LEASE
+    }
+
+    /**
+     * Map the current row of the result set to a record.
+     *
+     * @param <T> record type
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+
+        T mapRow(ResultSet resultSet) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlCallback<R> {
+
+        R call() throws SQLException;
+    }
+}
@@ -0,0 +1,122 @@
+package de.microtema.stream.listener.provider.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscriber draining a bounded number of records from a publisher, for a single receive.
+ * The demand is the limit, so the publisher can not emit more than a batch; the subscription is cancelled
+ * once the batch is full, the publisher terminated or the timeout elapsed.
+ *
+ * @param <T> record type
+ */
+class PublisherDrain<T> implements Flow.Subscriber<T> {
+
+    private final int limit;
+    private final List<T> records;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+
+    PublisherDrain(int limit) {
+        this.limit = Math.max(1, limit);
+        this.records = new ArrayList<>(Math.min(this.limit, 1024));
+    }
+
+    /**
+     * @param publisher     may not be null
+     * @param timeoutMillis max time to wait for the batch
+     * @return up to limit records, the records received so far if the publisher failed
+     */
+    List<T> drain(Flow.Publisher<T> publisher, long timeoutMillis) {
+
+        try {
+            publisher.subscribe(this);
+
+            done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        } finally {
+            cancel();
+        }
+
+        synchronized (records) {
+
+            if (records.isEmpty() && error != null) {
+                throw new IllegalStateException("Unable to receive records from publisher", error);
+            }
+
+            return new ArrayList<>(records);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+
+        if (this.subscription != null || done.getCount() == 0) {
+
+            subscription.cancel();
+
+            return;
+        }
+
+        this.subscription = subscription;
+
+        // NOTE: The drain may have been cancelled before the subscription was set
+        if (done.getCount() == 0) {
+
+            subscription.cancel();
+
+            return;
+        }
+
+        subscription.request(limit);
+    }
+
+    @Override
+    public void onNext(T record) {
+
+        synchronized (records) {
+
+            if (done.getCount() == 0) {
+                return;
+            }
+
+            records.add(record);
+
+            if (records.size() >= limit) {
+                done.countDown();
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+
+        error = throwable;
+
+        done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+
+        done.countDown();
+    }
+
+    private void cancel() {
+
+        done.countDown();
+
+        var current = subscription;
+
+        if (current != null) {
+            current.cancel();
+        }
+    }
+}
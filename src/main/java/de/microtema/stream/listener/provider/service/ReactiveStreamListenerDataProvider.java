@@ -0,0 +1,46 @@
+package de.microtema.stream.listener.provider.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * Reactive Stream Listener Data Provider push records as they arrive instead of being polled.
+ * The publisher is subscribed with bounded demand and records are executed and committed in rolling windows
+ * of up to {@link StreamListenerEndpoint#getBatchSize()} records.
+ * Once the publisher completes or fails, it is subscribed again after {@link StreamListenerEndpoint#getMaxDelay()}.
+ *
+ * @param <T>
+ */
+public interface ReactiveStreamListenerDataProvider<T extends EventIdAware> extends StreamListenerDataProvider<T> {
+
+    /**
+     * Publish records by specific endpoint
+     *
+     * @param endpoint may not be null
+     * @return Publisher may not be null
+     */
+    Flow.Publisher<T> publish(StreamListenerEndpoint<T> endpoint);
+
+    /**
+     * Max time in millis a {@link #receive(StreamListenerEndpoint)} waits for a batch.
+     */
+    long RECEIVE_TIMEOUT_MILLIS = 100;
+
+    /**
+     * Reactive endpoints are subscribed instead of being polled, so the listener container never calls receive.
+     * A direct poll, e.g. through {@code StreamListenerExecutionService#executeEndpointMethod}, subscribes the publisher
+     * for a single batch: it waits up to {@link #RECEIVE_TIMEOUT_MILLIS} for {@link StreamListenerEndpoint#getBatchSize()}
+     * records or the termination of the publisher and cancels the subscription.
+     *
+     * @param endpoint may not be null
+     * @return List
+     */
+    @Override
+    default List<T> receive(StreamListenerEndpoint<T> endpoint) {
+
+        return new PublisherDrain<T>(endpoint.getBatchSize()).drain(publish(endpoint), RECEIVE_TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,29 @@
+package de.microtema.stream.listener.provider.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of the records of a {@link SegmentLogStreamListenerDataProvider}.
+ *
+ * @param <T> record type
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Encode the record at the current position of the buffer.
+     *
+     * @param record may not be null
+     * @param buffer to write to
+     * @throws java.nio.BufferOverflowException if the record does not fit, the buffer is grown and the record encoded again
+     */
+    void encode(T record, ByteBuffer buffer);
+
+    /**
+     * Decode a record without copying: the buffer is a read-only view of the mapped segment, valid until the segment is deleted.
+     *
+     * @param id     offset of the record in the log
+     * @param buffer payload of the record, from position to limit
+     * @return record with given id
+     */
+    T decode(long id, ByteBuffer buffer);
+}
@@ -0,0 +1,48 @@
+package de.microtema.stream.listener.provider.service;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cursor over the records of a single receive. Records are pulled chunk by chunk while they are executed,
+ * so only the current chunk needs to be held in memory.
+ * The source is closed once the last chunk has been executed and committed.
+ *
+ * @param <T>
+ */
+public interface RecordSource<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * Release the underlying cursor, stream or connection.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Adapt an already received list of records.
+     *
+     * @param records may be null
+     * @param <T>     record type
+     * @return RecordSource
+     */
+    static <T> RecordSource<T> of(List<T> records) {
+
+        var iterator = Objects.isNull(records) ? Collections.<T>emptyIterator() : records.iterator();
+
+        return new RecordSource<>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+        };
+    }
+}
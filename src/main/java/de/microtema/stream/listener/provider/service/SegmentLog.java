@@ -0,0 +1,251 @@
+package de.microtema.stream.listener.provider.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only log of a single topic, split into memory-mapped segment files of a fixed size named by the offset of
+ * their first entry. An entry is a 4 byte length header followed by the payload, aligned to 4 bytes. The header is
+ * written last with release semantics, so a reader seeing a non zero length sees the complete payload; a zero length
+ * marks the end of the log and {@link #END_OF_SEGMENT} a rolled segment.
+ * A log has a single appender; readers are independent {@link Cursor}s.
+ */
+class SegmentLog implements AutoCloseable {
+
+    static final int HEADER_SIZE = 4;
+    static final int END_OF_SEGMENT = -1;
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+
+    private MappedByteBuffer writeSegment;
+    private int writePosition;
+    private long nextOffset = -1;
+
+    SegmentLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = align(segmentSize);
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create log directory [" + directory + "]", e);
+        }
+    }
+
+    /**
+     * Append an entry, rolling to a new segment if it does not fit into the current one.
+     *
+     * @param payload from position to limit, may not be empty
+     * @return offset of the entry
+     */
+    synchronized long append(ByteBuffer payload) {
+
+        var length = payload.remaining();
+
+        if (length == 0 || HEADER_SIZE + length > segmentSize) {
+            throw new IllegalArgumentException("Invalid entry size [" + length + "], must be between 1 and " + (segmentSize - HEADER_SIZE));
+        }
+
+        if (nextOffset < 0) {
+            recover();
+        }
+
+        if (writePosition + HEADER_SIZE + length > writeSegment.capacity()) {
+            roll();
+        }
+
+        writeSegment.put(writePosition + HEADER_SIZE, payload, payload.position(), length);
+
+        LENGTH.setRelease(writeSegment, writePosition, length);
+
+        writePosition = align(writePosition + HEADER_SIZE + length);
+
+        return nextOffset++;
+    }
+
+    /**
+     * @param offset of the next entry to read
+     * @return cursor positioned at given offset, or at the end of the log if the offset lies beyond
+     */
+    Cursor cursor(long offset) {
+
+        var base = getSegmentBases().stream()
+                .filter(it -> it <= offset)
+                .reduce((first, second) -> second)
+                .orElse(0L);
+
+        var cursor = new Cursor(base);
+
+        while (cursor.offset < offset && cursor.next() != null) {
+            // Skip entries before offset
+        }
+
+        return cursor;
+    }
+
+    /**
+     * Flush the mapped segments to disk.
+     */
+    @Override
+    public void close() {
+
+        segments.values().forEach(MappedByteBuffer::force);
+    }
+
+    /**
+     * Position the appender after the last entry of the last segment.
+     */
+    private void recover() {
+
+        var segmentBases = getSegmentBases();
+        var base = segmentBases.isEmpty() ? 0L : segmentBases.get(segmentBases.size() - 1);
+
+        var cursor = new Cursor(base);
+
+        while (cursor.next() != null) {
+            // Skip to the end of the log
+        }
+
+        writeSegment = cursor.segment;
+        writePosition = cursor.position;
+        nextOffset = cursor.offset;
+    }
+
+    /**
+     * Create and map the next segment before marking the end of the current one, so readers always find it.
+     */
+    private void roll() {
+
+        var nextSegment = getSegment(nextOffset);
+
+        if (writePosition + HEADER_SIZE <= writeSegment.capacity()) {
+            LENGTH.setRelease(writeSegment, writePosition, END_OF_SEGMENT);
+        }
+
+        writeSegment = nextSegment;
+        writePosition = 0;
+    }
+
+    private MappedByteBuffer getSegment(long base) {
+
+        return segments.computeIfAbsent(base, this::map);
+    }
+
+    private MappedByteBuffer map(long base) {
+
+        var path = getSegmentPath(base);
+
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            var size = channel.size() > 0 ? channel.size() : segmentSize;
+
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map segment [" + path + "]", e);
+        }
+    }
+
+    private boolean hasSegment(long base) {
+
+        return segments.containsKey(base) || Files.exists(getSegmentPath(base));
+    }
+
+    private Path getSegmentPath(long base) {
+
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> getSegmentBases() {
+
+        try (var paths = Files.list(directory)) {
+
+            return paths.map(it -> it.getFileName().toString())
+                    .filter(it -> it.endsWith(SEGMENT_SUFFIX))
+                    .map(it -> Long.parseLong(it.substring(0, it.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list segments of [" + directory + "]", e);
+        }
+    }
+
+    private static int align(int position) {
+
+        return (position + HEADER_SIZE - 1) & -HEADER_SIZE;
+    }
+
+    /**
+     * Reader of the log, not thread safe.
+     */
+    class Cursor {
+
+        private MappedByteBuffer segment;
+        private int position;
+        private long offset;
+
+        private Cursor(long base) {
+            this.segment = getSegment(base);
+            this.offset = base;
+        }
+
+        /**
+         * @return offset of the next entry
+         */
+        long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return read-only view of the payload of the next entry, or null at the end of the log
+         */
+        ByteBuffer next() {
+
+            while (true) {
+
+                var length = position + HEADER_SIZE > segment.capacity() ? END_OF_SEGMENT : (int) LENGTH.getAcquire(segment, position);
+
+                if (length == 0) {
+                    return null;
+                }
+
+                if (length == END_OF_SEGMENT) {
+
+                    if (!hasSegment(offset)) {
+                        return null;
+                    }
+
+                    segment = getSegment(offset);
+                    position = 0;
+
+                    continue;
+                }
+
+                var payload = segment.slice(position + HEADER_SIZE, length).asReadOnlyBuffer();
+
+                position = align(position + HEADER_SIZE + length);
+                offset++;
+
+                return payload;
+            }
+        }
+    }
+}
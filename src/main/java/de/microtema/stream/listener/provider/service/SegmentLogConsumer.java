@@ -0,0 +1,129 @@
+package de.microtema.stream.listener.provider.service;
+
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read position and committed offset of a single group on a {@link SegmentLog}.
+ * The committed offset, the offset of the first record not yet committed, is persisted in a memory-mapped index file
+ * of 8 bytes; a restarted consumer resumes there. Records are read ahead of the committed offset; a failed (ERROR)
+ * record holds the committed offset back, across later commits, until it is committed without error, and rewinds the
+ * read position, so it is delivered again with all records after it.
+ */
+class SegmentLogConsumer implements AutoCloseable {
+
+    private final SegmentLog segmentLog;
+    private final MappedByteBuffer index;
+
+    private SegmentLog.Cursor cursor;
+
+    /**
+     * Offset of the lowest failed record not yet committed without error, {@link Long#MAX_VALUE} if there is none.
+     */
+    private long unresolvedError = Long.MAX_VALUE;
+
+    SegmentLogConsumer(SegmentLog segmentLog, Path indexPath) {
+        this.segmentLog = segmentLog;
+        this.index = map(indexPath);
+        this.cursor = segmentLog.cursor(getCommittedOffset());
+    }
+
+    /**
+     * @param limit max number of records
+     * @param codec may not be null
+     * @param <T>   record type
+     * @return up to limit records after the read position
+     */
+    synchronized <T> List<T> poll(int limit, RecordCodec<T> codec) {
+
+        var records = new ArrayList<T>(Math.min(limit, 1024));
+
+        while (records.size() < limit) {
+
+            var id = cursor.getOffset();
+            var payload = cursor.next();
+
+            if (payload == null) {
+                break;
+            }
+
+            records.add(codec.decode(id, payload));
+        }
+
+        return records;
+    }
+
+    /**
+     * Advance the committed offset past the records of the commit batch, up to the lowest failed record
+     * of this or any former commit batch that is not committed without error yet.
+     *
+     * @param commitBatch may not be null
+     */
+    synchronized void commit(CommitBatch commitBatch) {
+
+        var firstError = Long.MAX_VALUE;
+        var last = -1L;
+        var resolved = false;
+
+        for (int index = 0; index < commitBatch.size(); index++) {
+
+            var id = commitBatch.getId(index);
+
+            last = Math.max(last, id);
+
+            if (commitBatch.getState(index) == ResponseState.ERROR) {
+                firstError = Math.min(firstError, id);
+            } else if (id == unresolvedError) {
+                resolved = true;
+            }
+        }
+
+        if (resolved) {
+            unresolvedError = Long.MAX_VALUE;
+        }
+
+        unresolvedError = Math.min(unresolvedError, firstError);
+
+        var committedOffset = Math.min(last + 1, unresolvedError);
+
+        if (committedOffset > getCommittedOffset()) {
+            index.putLong(0, committedOffset);
+        }
+
+        if (firstError < cursor.getOffset()) {
+            cursor = segmentLog.cursor(firstError);
+        }
+    }
+
+    synchronized long getCommittedOffset() {
+
+        return index.getLong(0);
+    }
+
+    /**
+     * Flush the committed offset to disk.
+     */
+    @Override
+    public synchronized void close() {
+
+        index.force();
+    }
+
+    private static MappedByteBuffer map(Path indexPath) {
+
+        try (var channel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map index [" + indexPath + "]", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package de.microtema.stream.listener.provider.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseStatus;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Reference data provider backed by an append-only log per topic on the local disk, see {@link SegmentLog}.
+ * <pre>
+ * {directory}/{topic}/00000000000000000000.log   segments, named by the offset of their first record
+ * {directory}/{topic}/{groupId}.offset           committed offset of the group
+ * </pre>
+ * Records are appended through {@link #append(String, EventIdAware)} and read through memory-mapped segments: the
+ * {@link RecordCodec} decodes each record from a view of the mapping, without copying. The id of a record is its offset
+ * in the log. Each group consumes a topic from its committed offset; a failed record is delivered again together with
+ * the records after it. Appends and commits are written to the page cache and flushed to disk on {@link #close()}.
+ * A topic has one appending process at a time, any number of processes may consume it.
+ *
+ * @param <T> record type
+ */
+public class SegmentLogStreamListenerDataProvider<T extends EventIdAware> implements StreamListenerDataProvider<T>, AutoCloseable {
+
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final int INITIAL_ENCODE_BUFFER_SIZE = 1024;
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9_.-]*");
+
+    private final Path directory;
+    private final RecordCodec<T> codec;
+    private final int segmentSize;
+
+    private final Map<String, SegmentLog> segmentLogs = new ConcurrentHashMap<>();
+    private final Map<String, SegmentLogConsumer> consumers = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<ByteBuffer> encodeBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_ENCODE_BUFFER_SIZE));
+
+    public SegmentLogStreamListenerDataProvider(Path directory, RecordCodec<T> codec) {
+        this(directory, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SegmentLogStreamListenerDataProvider(Path directory, RecordCodec<T> codec, int segmentSize) {
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Append a record to the log of the topic.
+     *
+     * @param topic  may not be null
+     * @param record may not be null
+     * @return offset of the record, which is its id once consumed
+     */
+    public long append(String topic, T record) {
+
+        return getSegmentLog(topic).append(encode(record));
+    }
+
+    @Override
+    public List<T> receive(StreamListenerEndpoint<T> endpoint) {
+
+        return getConsumer(endpoint).poll(endpoint.getBatchSize(), codec);
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<T> endpoint, List<ResponseStatus> responses) {
+
+        commit(endpoint, CommitBatch.of(responses));
+    }
+
+    @Override
+    public void commit(StreamListenerEndpoint<T> endpoint, CommitBatch commitBatch) {
+
+        if (commitBatch.size() == 0) {
+            return;
+        }
+
+        getConsumer(endpoint).commit(commitBatch);
+    }
+
+    /**
+     * Flush segments and committed offsets to disk.
+     */
+    @Override
+    public void close() {
+
+        consumers.values().forEach(SegmentLogConsumer::close);
+        segmentLogs.values().forEach(SegmentLog::close);
+    }
+
+    private ByteBuffer encode(T record) {
+
+        var buffer = encodeBuffer.get();
+
+        while (true) {
+
+            buffer.clear();
+
+            try {
+                codec.encode(record, buffer);
+
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+
+                if (buffer.capacity() >= segmentSize) {
+                    throw new IllegalArgumentException("Record [" + record.getEventId() + "] exceeds the segment size of " + segmentSize + " bytes", e);
+                }
+
+                buffer = ByteBuffer.allocate((int) Math.min((long) buffer.capacity() * 2, segmentSize));
+
+                encodeBuffer.set(buffer);
+            }
+        }
+    }
+
+    private SegmentLog getSegmentLog(String topic) {
+
+        return segmentLogs.computeIfAbsent(validate(topic, "topic"), it -> new SegmentLog(directory.resolve(it), segmentSize));
+    }
+
+    private SegmentLogConsumer getConsumer(StreamListenerEndpoint<T> endpoint) {
+
+        var topic = validate(endpoint.getTopic(), "topic");
+        var groupId = validate(endpoint.getGroupId(), "groupId");
+
+        return consumers.computeIfAbsent(topic + "/" + groupId, it -> new SegmentLogConsumer(getSegmentLog(topic), directory.resolve(topic).resolve(groupId + ".offset")));
+    }
+
+    private static String validate(String name, String attribute) {
+
+        if (Objects.isNull(name) || !FILE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid " + attribute + " [" + name + "], must be a valid file name");
+        }
+
+        return name;
+    }
+}
@@ -2,6 +2,7 @@ package de.microtema.stream.listener.provider.service;
 
 import de.microtema.stream.listener.model.EventIdAware;
 import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.support.CommitBatch;
 import de.microtema.stream.listener.support.ResponseStatus;
 
 import java.util.List;
@@ -13,13 +14,25 @@ import java.util.List;
 public interface StreamListenerDataProvider<T extends EventIdAware> {
 
     /**
-     * Receive records by specific endpoint
+     * Receive up to {@link StreamListenerEndpoint#getBatchSize()} records by specific endpoint
      *
      * @param endpoint may not be null
      * @return List
      */
     List<T> receive(StreamListenerEndpoint<T> endpoint);
 
+    /**
+     * Open a cursor over the records by specific endpoint.
+     * Used instead of {@link #receive(StreamListenerEndpoint)} when the endpoint executes in chunks,
+     * override it to stream records from the source instead of materialising the whole batch.
+     *
+     * @param endpoint may not be null
+     * @return RecordSource may not be null
+     */
+    default RecordSource<T> open(StreamListenerEndpoint<T> endpoint) {
+        return RecordSource.of(receive(endpoint));
+    }
+
     /**
      * Commit received records within specific endpoint
      *
@@ -27,4 +40,27 @@ public interface StreamListenerDataProvider<T extends EventIdAware> {
      * @param responses may not be null or empty
      */
     void commit(StreamListenerEndpoint<T> endpoint, List<ResponseStatus> responses);
+
+    /**
+     * Commit received records within specific endpoint in compact, columnar form.
+     * Adapts to {@link #commit(StreamListenerEndpoint, List)} by default, override it to serialise
+     * the ids, states and distinct error messages (or {@link CommitBatch#getOkRanges()}) directly.
+     *
+     * @param endpoint    may not be null
+     * @param commitBatch may not be null or empty
+     */
+    default void commit(StreamListenerEndpoint<T> endpoint, CommitBatch commitBatch) {
+        commit(endpoint, commitBatch.toResponseStatuses());
+    }
+
+    /**
+     * Extend the lease (lock) of received records that are still executed or waiting for their commit,
+     * so they are not redelivered in the meantime. Called every {@link StreamListenerEndpoint#getLeaseRenewInterval()}
+     * millis while records are in flight, does nothing by default.
+     *
+     * @param endpoint may not be null
+     * @param ids      of the records in flight, may not be null or empty
+     */
+    default void extendLease(StreamListenerEndpoint<T> endpoint, long[] ids) {
+    }
 }
@@ -0,0 +1,175 @@
+package de.microtema.stream.listener.publisher;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.service.StreamListenerExecutionService;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drives the polls of the endpoints of a single listener, one endpoint per topic.
+ * Each poll reschedules the next one on the {@link StreamListenerScheduler}, so no thread is held during the delay,
+ * the stack does not grow with the backlog and at most one poll of the listener runs at a time.
+ * <p>
+ * Every endpoint has its own {@link PollBackoff}. The endpoints that are due are polled round-robin,
+ * so busy topics share the listener fairly and idle topics, backing off, do not delay busy ones.
+ */
+class EndpointDriver {
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final List<StreamListenerEndpoint> endpoints;
+    private final StreamListenerScheduler streamListenerScheduler;
+    private final StreamListenerExecutionService streamListenerExecutionService;
+    private final PollBackoff[] pollBackoffs;
+
+    /**
+     * Time in millis at which each endpoint is due to be polled.
+     */
+    private final long[] nextPolls;
+
+    /**
+     * Index of the endpoint the round-robin starts with.
+     */
+    private int next;
+
+    EndpointDriver(List<StreamListenerEndpoint> endpoints, StreamListenerScheduler streamListenerScheduler, StreamListenerExecutionService streamListenerExecutionService) {
+        this.endpoints = endpoints;
+        this.streamListenerScheduler = streamListenerScheduler;
+        this.streamListenerExecutionService = streamListenerExecutionService;
+        this.pollBackoffs = endpoints.stream().map(PollBackoff::new).toArray(PollBackoff[]::new);
+        this.nextPolls = new long[endpoints.size()];
+    }
+
+    /**
+     * Schedule the first poll, unless the driver is already running.
+     *
+     * @param initialDelay in millis
+     */
+    void start(long initialDelay) {
+
+        var endpoint = endpoints.get(0);
+
+        if (!running.compareAndSet(false, true)) {
+
+            log.warn(() -> String.format("Endpoint [%s][%s] is already running", endpoint.getGroupId(), endpoint.getId()));
+
+            return;
+        }
+
+        var startMillis = System.currentTimeMillis() + initialDelay;
+
+        synchronized (this) {
+            Arrays.fill(nextPolls, startMillis);
+        }
+
+        schedule(initialDelay);
+    }
+
+    /**
+     * Stop rescheduling, a running poll completes.
+     */
+    void stop() {
+
+        running.set(false);
+    }
+
+    /**
+     * Poll the next due endpoint and schedule the next poll.
+     */
+    synchronized void poll() {
+
+        if (!running.get()) {
+            return;
+        }
+
+        var index = nextDueEndpoint(System.currentTimeMillis());
+
+        if (index >= 0) {
+            nextPolls[index] = System.currentTimeMillis() + pollEndpoint(index);
+        }
+
+        schedule(Math.max(0, getNextPoll() - System.currentTimeMillis()));
+    }
+
+    /**
+     * @return delay in millis until the endpoint is due again
+     */
+    private long pollEndpoint(int index) {
+
+        var endpoint = endpoints.get(index);
+
+        // Batch size may be adapted by the poll, the backoff compares against the size the poll was received with
+        var batchSize = endpoint.getBatchSize();
+
+        int received;
+
+        try {
+            received = streamListenerExecutionService.executeEndpointMethod(endpoint);
+        } catch (Exception e) {
+
+            log.error(e, () -> String.format("Unable to poll [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()));
+
+            received = 0;
+        }
+
+        return pollBackoffs[index].nextDelay(received, batchSize);
+    }
+
+    /**
+     * @return index of the first due endpoint in round-robin order or -1 if none is due
+     */
+    private int nextDueEndpoint(long currentMillis) {
+
+        for (int offset = 0; offset < endpoints.size(); offset++) {
+
+            var index = (next + offset) % endpoints.size();
+
+            if (nextPolls[index] <= currentMillis) {
+
+                next = index + 1;
+
+                return index;
+            }
+        }
+
+        return -1;
+    }
+
+    private long getNextPoll() {
+
+        var nextPoll = Long.MAX_VALUE;
+
+        for (var it : nextPolls) {
+            nextPoll = Math.min(nextPoll, it);
+        }
+
+        return nextPoll;
+    }
+
+    private void schedule(long delay) {
+
+        var endpoint = endpoints.get(0);
+
+        if (!running.get()) {
+            return;
+        }
+
+        log.trace(() -> String.format("Schedule next poll in [%s] ms on [%s][%s] endpoint", delay, endpoint.getGroupId(), endpoint.getId()));
+
+        try {
+            streamListenerScheduler.schedule(endpoint, this::poll, delay);
+        } catch (RejectedExecutionException e) {
+
+            running.set(false);
+
+            log.warn(() -> String.format("Scheduler rejected next poll, stop [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.microtema.stream.listener.publisher;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adaptive delay until the next poll of a single endpoint.
+ * <ul>
+ * <li>full batch: poll again immediately</li>
+ * <li>partial batch: poll again after {@link StreamListenerEndpoint#getDelay()}</li>
+ * <li>empty batch: exponential backoff with jitter, starting at {@link StreamListenerEndpoint#getDelay()}
+ * and bounded by {@link StreamListenerEndpoint#getMaxDelay()}</li>
+ * </ul>
+ */
+class PollBackoff {
+
+    private static final int MAX_SHIFT = 30;
+
+    private final StreamListenerEndpoint<?> endpoint;
+
+    private int emptyPolls;
+
+    PollBackoff(StreamListenerEndpoint<?> endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param received number of records received by the last poll
+     * @param limit    max number of records a poll may receive
+     * @return delay in millis
+     */
+    synchronized long nextDelay(int received, int limit) {
+
+        if (received > 0) {
+
+            emptyPolls = 0;
+
+            return received >= limit ? 0 : endpoint.getDelay();
+        }
+
+        var minDelay = Math.max(1, endpoint.getDelay());
+        var maxDelay = Math.max(minDelay, endpoint.getMaxDelay());
+
+        var delay = minDelay << emptyPolls;
+
+        if (emptyPolls < MAX_SHIFT) {
+            emptyPolls++;
+        }
+
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+
+        // Equal jitter: keep half of the delay, randomize the other half
+        var half = delay / 2;
+
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+}
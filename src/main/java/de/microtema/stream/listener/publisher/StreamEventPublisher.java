@@ -1,18 +1,18 @@
 package de.microtema.stream.listener.publisher;
 
 import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.ReactiveStreamListenerDataProvider;
 import de.microtema.stream.listener.service.StreamListenerExecutionService;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.log.LogAccessor;
-import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Component
@@ -21,102 +21,89 @@ public class StreamEventPublisher {
 
     private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
 
-    private final Set<String> endpointIds = Collections.synchronizedSet(new HashSet<>());
-    private final Set<StreamListenerEndpoint> endpoints = Collections.synchronizedSet(new HashSet<>());
+    private final List<List<StreamListenerEndpoint>> listenerEndpoints = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, EndpointDriver> endpointDrivers = new ConcurrentHashMap<>();
 
-    private final ScheduledExecutorService scheduledExecutorService;
+    private final StreamListenerScheduler streamListenerScheduler;
     private final StreamListenerExecutionService streamListenerExecutionService;
 
-    private ScheduledTaskRegistrar scheduledTaskRegistrar;
-
-    public StreamEventPublisher(ScheduledExecutorService scheduledExecutorService, StreamListenerExecutionService streamListenerExecutionService) {
-        this.scheduledExecutorService = scheduledExecutorService;
+    public StreamEventPublisher(StreamListenerScheduler streamListenerScheduler, StreamListenerExecutionService streamListenerExecutionService) {
+        this.streamListenerScheduler = streamListenerScheduler;
         this.streamListenerExecutionService = streamListenerExecutionService;
     }
 
     public void registerStreamListenerEndpoint(StreamListenerEndpoint endpoint) {
 
-        log.info(() -> String.format("Endpoint [%s][%s] for topic [%s] within concurrency [%s] successfully registered", endpoint.getGroupId(), endpoint.getId(), endpoint.getTopic(), endpoint.isConcurrency()));
-
-        endpoints.add(endpoint);
+        registerStreamListenerEndpoints(List.of(endpoint));
     }
 
-    public void startup(ScheduledTaskRegistrar scheduledTaskRegistrar) {
-
-        this.scheduledTaskRegistrar = scheduledTaskRegistrar;
+    /**
+     * Register the endpoints of a single listener, one per topic. They are polled by one driver, round-robin.
+     *
+     * @param endpoints may not be null or empty
+     */
+    public void registerStreamListenerEndpoints(List<StreamListenerEndpoint> endpoints) {
 
         for (var endpoint : endpoints) {
+            log.info(() -> String.format("Endpoint [%s][%s] for topic [%s] within concurrency [%s] successfully registered", endpoint.getGroupId(), endpoint.getId(), endpoint.getTopic(), endpoint.getConcurrency()));
+        }
 
-            var autoStartup = endpoint.isAutoStartup();
+        listenerEndpoints.add(endpoints);
+    }
 
-            if (autoStartup) {
-                publishEvent(endpoint);
-            } else {
-                scheduledTaskRegistrar.addCronTask(() -> publishEvent(endpoint), endpoint.getCron());
+    public void startup() {
+
+        synchronized (listenerEndpoints) {
+
+            for (var endpoints : listenerEndpoints) {
+                startup(endpoints);
             }
         }
     }
 
     public void destroy() {
 
-        scheduledTaskRegistrar.destroy();
-    }
-
-    private void publishEvent(StreamListenerEndpoint endpoint) {
+        endpointDrivers.values().forEach(EndpointDriver::stop);
 
-        var listenerId = endpoint.getId();
-        var autoStartup = endpoint.isAutoStartup();
-        var delay = endpoint.getDelay();
+        streamListenerScheduler.shutdown();
 
-        if (!endpointIds.add(listenerId)) {
+        streamListenerExecutionService.destroy();
+    }
 
-            log.warn(() -> String.format("RACE CONDITION DETECTED on [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()));
+    private void startup(List<StreamListenerEndpoint> endpoints) {
 
-            return;
-        }
+        var polledEndpoints = new ArrayList<StreamListenerEndpoint>();
 
-        boolean hasMore;
+        for (var endpoint : endpoints) {
 
-        try {
-            hasMore = streamListenerExecutionService.executeEndpointMethod(endpoint);
-        } finally {
-            endpointIds.remove(listenerId);
+            if (endpoint.getDataProvider() instanceof ReactiveStreamListenerDataProvider) {
+                subscribe(endpoint, getInitialDelay(endpoint));
+            } else {
+                polledEndpoints.add(endpoint);
+            }
         }
 
-        if (!hasMore) {
+        if (polledEndpoints.isEmpty()) {
             return;
         }
 
-        if (autoStartup) {
-
-            log.trace(() -> String.format("Call next task on [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()));
-
-            // Small delay, due to other threads/systems
-            sleepTill(delay);
-
-            publishEvent(endpoint);
-        } else {
+        getEndpointDriver(polledEndpoints).start(getInitialDelay(polledEndpoints.get(0)));
+    }
 
-            log.trace(() -> String.format("Reschedule next async task on [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()));
+    private long getInitialDelay(StreamListenerEndpoint endpoint) {
 
-            scheduledExecutorService.schedule(() -> publishEvent(endpoint), delay, TimeUnit.MILLISECONDS);
-        }
+        return endpoint.isAutoStartup() ? 0 : endpoint.getMaxDelay();
     }
 
-    private void sleepTill(long delayInMillis) {
-
-        if (delayInMillis < 1) {
-            return;
-        }
+    private void subscribe(StreamListenerEndpoint endpoint, long initialDelay) {
 
-        try {
-            Thread.sleep(delayInMillis);
-        } catch (InterruptedException e) {
+        log.debug(() -> String.format("Subscribe reactive data provider of [%s][%s] endpoint in [%s] ms", endpoint.getGroupId(), endpoint.getId(), initialDelay));
 
-            log.warn(() -> "Interrupted Exception during the thread sleep! Message: " + e.getMessage());
+        streamListenerScheduler.schedule(endpoint, () -> streamListenerExecutionService.subscribe(endpoint), initialDelay);
+    }
 
-            Thread.currentThread().interrupt();
-        }
+    private EndpointDriver getEndpointDriver(List<StreamListenerEndpoint> endpoints) {
 
+        return endpointDrivers.computeIfAbsent(endpoints.get(0).getId(), it -> new EndpointDriver(endpoints, streamListenerScheduler, streamListenerExecutionService));
     }
 }
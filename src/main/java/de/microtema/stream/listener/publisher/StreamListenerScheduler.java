@@ -0,0 +1,179 @@
+package de.microtema.stream.listener.publisher;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Library managed scheduler of all endpoint polls.
+ * A single timer thread waits for the delays, due polls are queued for a fixed pool of threads.
+ * <p>
+ * Queued polls are ordered by start-time fair queuing: each listener has a virtual finish time that advances
+ * by the run time of its polls divided by its {@link StreamListenerEndpoint#getWeight()}, and the poll with the
+ * lowest start time runs first. A hot listener therefore gets a share of the threads proportional to its weight,
+ * instead of monopolising them.
+ */
+public class StreamListenerScheduler {
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerMetrics metrics;
+    private final ScheduledExecutorService timer;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Start time of the poll that started last, in virtual nanos.
+     */
+    private long virtualTime;
+
+    public StreamListenerScheduler(int poolSize, StreamListenerMetrics metrics) {
+        this.metrics = metrics;
+        this.timer = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("stream-listener-timer-"));
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), new CustomizableThreadFactory("stream-listener-scheduler-"));
+
+        // Started threads take their tasks from the queue, so the first polls are ordered as well
+        workers.prestartAllCoreThreads();
+    }
+
+    /**
+     * Run given task of the endpoint after the delay.
+     *
+     * @param endpoint the endpoint the task is accounted to, listeners of several topics use their first endpoint
+     * @param task     may not be null
+     * @param delay    in millis
+     * @throws RejectedExecutionException if the scheduler is shut down
+     */
+    public void schedule(StreamListenerEndpoint<?> endpoint, Runnable task, long delay) {
+
+        var lane = lanes.computeIfAbsent(endpoint.getId(), it -> new Lane(endpoint));
+
+        // A poll due now is queued right away, so it competes for the next free thread
+        if (delay <= 0) {
+
+            if (workers.isShutdown()) {
+                throw new RejectedExecutionException("Scheduler is shut down");
+            }
+
+            enqueue(lane, task);
+
+            return;
+        }
+
+        timer.schedule(() -> enqueue(lane, task), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the timer and the threads, running polls complete.
+     */
+    public void shutdown() {
+
+        timer.shutdownNow();
+        workers.shutdown();
+    }
+
+    private void enqueue(Lane lane, Runnable task) {
+
+        long startTime;
+
+        synchronized (this) {
+            startTime = Math.max(virtualTime, lane.getFinishTime());
+        }
+
+        try {
+            workers.execute(new QueuedTask(lane, task, startTime, metrics.start()));
+        } catch (RejectedExecutionException e) {
+
+            log.debug(() -> String.format("Scheduler is shut down, drop poll of [%s][%s] endpoint", lane.endpoint.getGroupId(), lane.endpoint.getId()));
+        }
+    }
+
+    private static class Lane {
+
+        private final StreamListenerEndpoint<?> endpoint;
+        private final int weight;
+
+        /**
+         * Virtual start and finish time of the last poll, in virtual nanos.
+         */
+        private long startTime;
+        private long finishTime;
+        private long startNanos;
+        private boolean running;
+
+        private Lane(StreamListenerEndpoint<?> endpoint) {
+            this.endpoint = endpoint;
+            this.weight = Math.max(1, endpoint.getWeight());
+        }
+
+        private synchronized void started(long startTime) {
+
+            this.startTime = startTime;
+            this.startNanos = System.nanoTime();
+            this.running = true;
+        }
+
+        private synchronized void finished() {
+
+            finishTime = startTime + (System.nanoTime() - startNanos) / weight;
+            running = false;
+        }
+
+        /**
+         * @return the virtual finish time, a running poll (rescheduling itself) is accounted up to now
+         */
+        private synchronized long getFinishTime() {
+
+            return running ? startTime + (System.nanoTime() - startNanos) / weight : finishTime;
+        }
+    }
+
+    private class QueuedTask implements Runnable, Comparable<QueuedTask> {
+
+        private final Lane lane;
+        private final Runnable task;
+        private final long startTime;
+        private final long queued;
+
+        private QueuedTask(Lane lane, Runnable task, long startTime, long queued) {
+            this.lane = lane;
+            this.task = task;
+            this.startTime = startTime;
+            this.queued = queued;
+        }
+
+        @Override
+        public void run() {
+
+            metrics.queued(lane.endpoint, queued);
+
+            synchronized (StreamListenerScheduler.this) {
+                virtualTime = Math.max(virtualTime, startTime);
+            }
+
+            lane.started(startTime);
+
+            try {
+                task.run();
+            } finally {
+                lane.finished();
+            }
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            return Long.compare(startTime, other.startTime);
+        }
+    }
+}
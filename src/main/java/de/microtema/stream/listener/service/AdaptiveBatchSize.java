@@ -0,0 +1,75 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+
+/**
+ * Adaptive batch size of a single endpoint, bounded by {@link StreamListenerEndpoint#getMinBatchSize()}
+ * and {@link StreamListenerEndpoint#getMaxBatchSize()}.
+ * <ul>
+ * <li>full batch, fast cycle: grow by half, as long as the cycle is expected to stay within
+ * {@link StreamListenerEndpoint#getTargetCycleTime()}</li>
+ * <li>slow cycle or error spike: shrink by half</li>
+ * <li>otherwise: keep the batch size</li>
+ * </ul>
+ */
+class AdaptiveBatchSize {
+
+    private static final double MAX_ERROR_RATIO = 0.1;
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<?> endpoint;
+
+    AdaptiveBatchSize(StreamListenerEndpoint<?> endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param endpoint may not be null
+     * @return true if the batch size of given endpoint may vary
+     */
+    static boolean isEnabled(StreamListenerEndpoint<?> endpoint) {
+
+        return endpoint.getMinBatchSize() < endpoint.getMaxBatchSize();
+    }
+
+    /**
+     * Adapt the batch size of the endpoint to the last cycle.
+     *
+     * @param batchSize batch size the cycle was received with
+     * @param received  number of received records
+     * @param errors    number of records that failed
+     * @param cycleTime receive, execute and commit time in millis
+     */
+    synchronized void update(int batchSize, int received, int errors, long cycleTime) {
+
+        var targetCycleTime = endpoint.getTargetCycleTime();
+
+        int nextBatchSize;
+
+        if (cycleTime > targetCycleTime || errors > received * MAX_ERROR_RATIO) {
+
+            nextBatchSize = Math.max(endpoint.getMinBatchSize(), batchSize / 2);
+        } else if (received >= batchSize) {
+
+            nextBatchSize = (int) Math.min(endpoint.getMaxBatchSize(), batchSize + batchSize / 2L + 1);
+
+            // Cycle time grows with the batch size, only grow if the projected cycle stays within target
+            if (cycleTime * nextBatchSize > targetCycleTime * batchSize) {
+                return;
+            }
+        } else {
+            return;
+        }
+
+        if (nextBatchSize == endpoint.getBatchSize()) {
+            return;
+        }
+
+        log.debug(() -> String.format("Adapt batch size of [%s][%s] endpoint from (%s) to (%s) after (%s) record(s) with (%s) error(s) in [%s] ms", endpoint.getGroupId(), endpoint.getId(), batchSize, nextBatchSize, received, errors, cycleTime));
+
+        endpoint.setBatchSize(nextBatchSize);
+    }
+}
@@ -0,0 +1,145 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.CircuitState;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+
+/**
+ * Circuit breaker of a single endpoint, driven by the ERROR ratio of the records of the last cycles.
+ * <ul>
+ * <li>closed: opens once at least {@link #MIN_RECORDS} records of the last {@link #WINDOW_CYCLES} cycles are recorded
+ * and {@link StreamListenerEndpoint#getFailureRateThreshold()} percent of them failed</li>
+ * <li>open: no receive until {@link StreamListenerEndpoint#getCircuitOpenTime()} millis have passed</li>
+ * <li>half open: a batch of at most {@link #HALF_OPEN_BATCH_SIZE} records probes the listener,
+ * closes the circuit if the failure rate is below the threshold, opens it again otherwise</li>
+ * </ul>
+ */
+class CircuitBreaker {
+
+    static final int WINDOW_CYCLES = 10;
+    static final int MIN_RECORDS = 20;
+    static final int HALF_OPEN_BATCH_SIZE = 10;
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<?> endpoint;
+    private final StreamListenerMetrics metrics;
+
+    private final int[] received = new int[WINDOW_CYCLES];
+    private final int[] errors = new int[WINDOW_CYCLES];
+    private int cycle;
+
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+
+    CircuitBreaker(StreamListenerEndpoint<?> endpoint, StreamListenerMetrics metrics) {
+        this.endpoint = endpoint;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param endpoint may not be null
+     * @return true if the endpoint has a circuit breaker
+     */
+    static boolean isEnabled(StreamListenerEndpoint<?> endpoint) {
+
+        return endpoint.getFailureRateThreshold() > 0;
+    }
+
+    CircuitState getState() {
+        return state;
+    }
+
+    /**
+     * @return true if records may be received, moves an open circuit to half open once the open time passed
+     */
+    synchronized boolean allowReceive() {
+
+        if (state == CircuitState.OPEN && System.currentTimeMillis() - openedAt >= endpoint.getCircuitOpenTime()) {
+            transitionTo(CircuitState.HALF_OPEN);
+        }
+
+        return state != CircuitState.OPEN;
+    }
+
+    /**
+     * @param batchSize the configured batch size
+     * @return the batch size to receive in the current state
+     */
+    int getBatchSize(int batchSize) {
+
+        return state == CircuitState.HALF_OPEN ? Math.min(batchSize, HALF_OPEN_BATCH_SIZE) : batchSize;
+    }
+
+    /**
+     * Record the outcome of a cycle.
+     *
+     * @param received number of received records
+     * @param errors   number of records that failed
+     */
+    synchronized void record(int received, int errors) {
+
+        if (received == 0) {
+            return;
+        }
+
+        if (state == CircuitState.HALF_OPEN) {
+
+            reset();
+
+            transitionTo(isFailing(received, errors) ? CircuitState.OPEN : CircuitState.CLOSED);
+
+            return;
+        }
+
+        this.received[cycle] = received;
+        this.errors[cycle] = errors;
+
+        cycle = (cycle + 1) % WINDOW_CYCLES;
+
+        var windowReceived = 0;
+        var windowErrors = 0;
+
+        for (int index = 0; index < WINDOW_CYCLES; index++) {
+            windowReceived += this.received[index];
+            windowErrors += this.errors[index];
+        }
+
+        if (windowReceived >= MIN_RECORDS && isFailing(windowReceived, windowErrors)) {
+
+            reset();
+
+            transitionTo(CircuitState.OPEN);
+        }
+    }
+
+    private boolean isFailing(int received, int errors) {
+
+        return errors * 100L >= received * (long) endpoint.getFailureRateThreshold();
+    }
+
+    private void reset() {
+
+        for (int index = 0; index < WINDOW_CYCLES; index++) {
+            received[index] = 0;
+            errors[index] = 0;
+        }
+    }
+
+    private void transitionTo(CircuitState nextState) {
+
+        if (nextState == CircuitState.OPEN) {
+            openedAt = System.currentTimeMillis();
+        }
+
+        var previousState = state;
+
+        state = nextState;
+
+        metrics.circuitState(endpoint, nextState);
+
+        log.warn(() -> String.format("Circuit of [%s][%s] endpoint changed from %s to %s", endpoint.getGroupId(), endpoint.getId(), previousState, nextState));
+    }
+}
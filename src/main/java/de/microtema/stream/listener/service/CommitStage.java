@@ -0,0 +1,229 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.support.CommitBatch;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous commit for a single endpoint.
+ * Commit batches of consecutive batches are merged into one commit until {@link StreamListenerEndpoint#getCommitSize()}
+ * responses are collected or {@link StreamListenerEndpoint#getCommitDelay()} millis have passed.
+ * The queue is bounded by {@link StreamListenerEndpoint#getCommitSize()} responses, a larger batch is only enqueued
+ * into an empty queue, so a slow commit blocks the listener thread instead of piling up responses.
+ * A failed commit is recorded through {@link StreamListenerMetrics#commitFailed} and thrown by the next {@link #commit(CommitBatch)},
+ * so the poll of the endpoint fails and backs off just like a failed synchronous commit.
+ */
+class CommitStage<T extends EventIdAware> {
+
+    private static final long IDLE_TIMEOUT_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MINUTES = 1;
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<T> endpoint;
+    private final StreamListenerMetrics metrics;
+    private final Consumer<CommitBatch> committed;
+    private final BlockingQueue<CommitBatch> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final ExecutorService executor;
+
+    private volatile boolean closed;
+
+    CommitStage(StreamListenerEndpoint<T> endpoint, StreamListenerMetrics metrics) {
+        this(endpoint, metrics, it -> {
+        });
+    }
+
+    /**
+     * @param committed called with each enqueued commit batch once it is committed, or failed to commit
+     */
+    CommitStage(StreamListenerEndpoint<T> endpoint, StreamListenerMetrics metrics, Consumer<CommitBatch> committed) {
+        this.endpoint = endpoint;
+        this.metrics = metrics;
+        this.committed = committed;
+        this.capacity = new Semaphore(Math.max(1, endpoint.getCommitSize()));
+        this.executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("stream-listener-" + endpoint.getId() + "-commit-"));
+        this.executor.execute(this::run);
+    }
+
+    /**
+     * Enqueue a commit batch, blocking while the queue is full.
+     * Once the stage is closed or the caller is interrupted, the batch is committed on the caller thread.
+     *
+     * @param commitBatch may not be null
+     * @throws IllegalStateException if a previous commit failed
+     */
+    void commit(CommitBatch commitBatch) {
+
+        if (!enqueue(commitBatch)) {
+            commitImpl(List.of(commitBatch));
+        }
+
+        var exception = failure.getAndSet(null);
+
+        if (exception != null) {
+            throw new IllegalStateException(String.format("Unable to commit responses on [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()), exception);
+        }
+    }
+
+    /**
+     * Flush all queued responses and stop the commit thread.
+     */
+    void close() {
+
+        // Wait for enqueuing callers, any later caller sees the stage closed
+        closeLock.writeLock().lock();
+
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                log.warn(() -> String.format("Commit stage of [%s][%s] endpoint did not terminate in time", endpoint.getGroupId(), endpoint.getId()));
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    /**
+     * @return false if the stage is closed, the commit thread is gone or the caller is interrupted
+     */
+    private boolean enqueue(CommitBatch commitBatch) {
+
+        closeLock.readLock().lock();
+
+        try {
+            if (closed) {
+                return false;
+            }
+
+            var permits = getPermits(commitBatch);
+
+            while (!capacity.tryAcquire(permits, IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+
+                if (executor.isTerminated()) {
+                    return false;
+                }
+            }
+
+            queue.add(commitBatch);
+
+            return true;
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+
+            return false;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private void run() {
+
+        try {
+            while (!closed || !queue.isEmpty()) {
+
+                var commitBatch = queue.poll(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (commitBatch != null) {
+                    coalesce(commitBatch);
+                }
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void coalesce(CommitBatch commitBatch) throws InterruptedException {
+
+        var commitBatches = new ArrayList<CommitBatch>();
+        var size = commitBatch.size();
+        var deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(endpoint.getCommitDelay());
+
+        commitBatches.add(commitBatch);
+
+        while (size < endpoint.getCommitSize()) {
+
+            var remaining = deadline - System.nanoTime();
+
+            var next = closed || remaining <= 0 ? queue.poll() : queue.poll(remaining, TimeUnit.NANOSECONDS);
+
+            if (next == null) {
+                break;
+            }
+
+            commitBatches.add(next);
+
+            size += next.size();
+        }
+
+        commitImpl(commitBatches);
+
+        commitBatches.forEach(it -> capacity.release(getPermits(it)));
+    }
+
+    private void flush() {
+
+        var rest = new ArrayList<CommitBatch>();
+
+        queue.drainTo(rest);
+
+        rest.forEach(it -> commitImpl(List.of(it)));
+    }
+
+    private void commitImpl(List<CommitBatch> commitBatches) {
+
+        var commitBatch = CommitBatch.merge(commitBatches);
+        var start = metrics.start();
+
+        try {
+            endpoint.getDataProvider().commit(endpoint, commitBatch);
+
+            metrics.committed(endpoint, start, commitBatch.size());
+        } catch (Exception ex) {
+
+            metrics.commitFailed(endpoint, commitBatch.size());
+
+            failure.set(ex);
+
+            log.error(ex, () -> String.format("Unable to commit (%s) response(s) on [%s][%s] endpoint", commitBatch.size(), endpoint.getGroupId(), endpoint.getId()));
+        } finally {
+            commitBatches.forEach(committed);
+        }
+    }
+
+    private int getPermits(CommitBatch commitBatch) {
+
+        return Math.min(commitBatch.size(), Math.max(1, endpoint.getCommitSize()));
+    }
+}
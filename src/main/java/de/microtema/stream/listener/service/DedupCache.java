@@ -0,0 +1,177 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recently processed event ids of a single endpoint, so redelivered events are skipped instead of executed again.
+ * The cache holds at most {@link StreamListenerEndpoint#getDedupSize()} event ids for at most
+ * {@link StreamListenerEndpoint#getDedupTtl()} millis, the oldest are evicted first.
+ * <p>
+ * With {@link StreamListenerEndpoint#isDedupFilter()} a bloom filter of about 10 bits per event id (1% false positives)
+ * answers most misses, the common case, without taking the lock of the cache.
+ * Evicted ids stay in the filter until it is rebuilt, a false positive is resolved by the cache.
+ */
+class DedupCache {
+
+    private static final int FILTER_BITS_PER_EVENT = 10;
+    private static final int FILTER_HASHES = 7;
+
+    private final StreamListenerEndpoint<?> endpoint;
+
+    /**
+     * Processed time in millis by event id, in processing order.
+     */
+    private final Map<String, Long> events = new LinkedHashMap<>();
+
+    private volatile long[] filter;
+    private int filterInsertions;
+
+    DedupCache(StreamListenerEndpoint<?> endpoint) {
+        this.endpoint = endpoint;
+        this.filter = endpoint.isDedupFilter() ? newFilter() : null;
+    }
+
+    /**
+     * @param endpoint may not be null
+     * @return true if given endpoint skips processed events
+     */
+    static boolean isEnabled(StreamListenerEndpoint<?> endpoint) {
+
+        return endpoint.getDedupSize() > 0;
+    }
+
+    /**
+     * @param eventId may be null
+     * @return true if the event was processed within the ttl
+     */
+    boolean contains(String eventId) {
+
+        if (eventId == null) {
+            return false;
+        }
+
+        var filter = this.filter;
+
+        if (filter != null && !mightContain(filter, eventId)) {
+            return false;
+        }
+
+        synchronized (this) {
+
+            var processed = events.get(eventId);
+
+            if (processed == null) {
+                return false;
+            }
+
+            if (System.currentTimeMillis() - processed > endpoint.getDedupTtl()) {
+
+                events.remove(eventId);
+
+                return false;
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Remember a processed event, evicting the oldest and expired events.
+     *
+     * @param eventId may be null
+     */
+    synchronized void add(String eventId) {
+
+        if (eventId == null) {
+            return;
+        }
+
+        var currentMillis = System.currentTimeMillis();
+
+        // Remove first, so a processed again event moves to the end
+        events.remove(eventId);
+        events.put(eventId, currentMillis);
+
+        var iterator = events.values().iterator();
+
+        while (iterator.hasNext()) {
+
+            var processed = iterator.next();
+
+            if (events.size() <= endpoint.getDedupSize() && currentMillis - processed <= endpoint.getDedupTtl()) {
+                break;
+            }
+
+            iterator.remove();
+        }
+
+        if (filter == null) {
+            return;
+        }
+
+        // Evicted ids are not removed from the filter, rebuild it once as many ids were added as it was sized for
+        if (++filterInsertions > endpoint.getDedupSize()) {
+
+            var rebuilt = newFilter();
+
+            events.keySet().forEach(it -> put(rebuilt, it));
+
+            filter = rebuilt;
+            filterInsertions = events.size();
+        } else {
+            put(filter, eventId);
+        }
+    }
+
+    private long[] newFilter() {
+
+        var bits = (long) endpoint.getDedupSize() * FILTER_BITS_PER_EVENT;
+
+        return new long[(int) Math.min(Integer.MAX_VALUE, (bits + 63) / 64)];
+    }
+
+    private static void put(long[] filter, String eventId) {
+
+        var bits = filter.length * 64L;
+        var hash = eventId.hashCode();
+        var step = mix(hash);
+
+        for (int i = 0; i < FILTER_HASHES; i++) {
+
+            var bit = Math.floorMod(hash + (long) i * step, bits);
+
+            filter[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain(long[] filter, String eventId) {
+
+        var bits = filter.length * 64L;
+        var hash = eventId.hashCode();
+        var step = mix(hash);
+
+        for (int i = 0; i < FILTER_HASHES; i++) {
+
+            var bit = Math.floorMod(hash + (long) i * step, bits);
+
+            if ((filter[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Second, independent hash for double hashing, forced odd so the probes differ.
+     */
+    private static long mix(int hash) {
+
+        var mixed = hash * 0x9E3779B97F4A7C15L;
+
+        return (mixed ^ (mixed >>> 32)) | 1;
+    }
+}
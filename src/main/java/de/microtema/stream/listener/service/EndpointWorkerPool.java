@@ -0,0 +1,94 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Dedicated, bounded worker pool for a single endpoint.
+ * It runs {@link StreamListenerEndpoint#getConcurrency()} threads and queues up to
+ * {@link StreamListenerEndpoint#getQueueCapacity()} records. When the queue is full the listener thread
+ * executes the record itself, so a blocking listener throttles its own endpoint only and never
+ * occupies threads of other endpoints or the common pool.
+ * The active, queued and completed counts are recorded through {@link StreamListenerMetrics#workerPool} after each batch.
+ */
+class EndpointWorkerPool implements RecordExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_MINUTES = 1;
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<?> endpoint;
+    private final StreamListenerMetrics metrics;
+    private final ThreadPoolExecutor executor;
+
+    EndpointWorkerPool(StreamListenerEndpoint<?> endpoint, StreamListenerMetrics metrics) {
+
+        var concurrency = endpoint.getConcurrency();
+        var queueCapacity = Math.max(1, endpoint.getQueueCapacity());
+        var threadFactory = new CustomizableThreadFactory("stream-listener-" + endpoint.getId() + "-worker-");
+
+        this.endpoint = endpoint;
+        this.metrics = metrics;
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), threadFactory, (task, it) -> task.run());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public <T> void execute(List<T> records, ObjIntConsumer<T> task) {
+
+        var futures = new ArrayList<CompletableFuture<Void>>(records.size());
+
+        for (int index = 0; index < records.size(); index++) {
+
+            var record = records.get(index);
+            var recordIndex = index;
+
+            futures.add(CompletableFuture.runAsync(() -> task.accept(record, recordIndex), executor));
+        }
+
+        futures.forEach(CompletableFuture::join);
+
+        metrics.workerPool(endpoint, getActiveCount(), getQueueSize(), getCompletedTaskCount());
+
+        log.trace(() -> String.format("Worker pool of [%s][%s] endpoint: active [%s], queued [%s], completed [%s]", endpoint.getGroupId(), endpoint.getId(), getActiveCount(), getQueueSize(), getCompletedTaskCount()));
+    }
+
+    int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public void close() {
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                log.warn(() -> String.format("Worker pool of [%s][%s] endpoint did not terminate in time", endpoint.getGroupId(), endpoint.getId()));
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lease heartbeat of a single endpoint.
+ * Every {@link StreamListenerEndpoint#getLeaseRenewInterval()} millis the leases of the records in flight,
+ * from execution until their commit, are extended through the data provider,
+ * so a slow batch is not redelivered to another instance while it is still executed.
+ */
+class LeaseHeartbeat<T extends EventIdAware> {
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<T> endpoint;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Ids of the records in flight by their owner: the received records, then their commit batch.
+     */
+    private final Map<Object, long[]> leases = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    LeaseHeartbeat(StreamListenerEndpoint<T> endpoint) {
+        this.endpoint = endpoint;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("stream-listener-" + endpoint.getId() + "-lease-"));
+
+        var interval = endpoint.getLeaseRenewInterval();
+
+        this.executor.scheduleWithFixedDelay(this::extendLeases, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param endpoint may not be null
+     * @return true if the leases of given endpoint are renewed
+     */
+    static boolean isEnabled(StreamListenerEndpoint<?> endpoint) {
+
+        return endpoint.getLeaseRenewInterval() > 0;
+    }
+
+    /**
+     * Renew the leases of given records until they are released.
+     *
+     * @param records may not be null
+     * @return the leased ids
+     */
+    long[] acquire(List<T> records) {
+
+        var ids = new long[records.size()];
+        var size = 0;
+
+        for (var record : records) {
+
+            var id = record.getId();
+
+            if (id != null) {
+                ids[size++] = id;
+            }
+        }
+
+        ids = size == ids.length ? ids : Arrays.copyOf(ids, size);
+
+        leases.put(records, ids);
+
+        return ids;
+    }
+
+    /**
+     * Move the lease of the executed records to their commit batch, so it is renewed until the commit.
+     *
+     * @param records  the executed records
+     * @param newOwner the commit batch of the records, null if the execution failed
+     */
+    void transfer(List<T> records, Object newOwner) {
+
+        var ids = leases.remove(records);
+
+        if (ids != null && newOwner != null) {
+            leases.put(newOwner, ids);
+        }
+    }
+
+    /**
+     * Stop renewing the leases of given owner.
+     *
+     * @param owner the records or their commit batch
+     */
+    void release(Object owner) {
+
+        leases.remove(owner);
+    }
+
+    /**
+     * Stop renewing the leases of given records of given owner, e.g. duplicates removed before the execution.
+     *
+     * @param owner   the records or their commit batch
+     * @param records records of the owner
+     */
+    void release(Object owner, List<T> records) {
+
+        if (records.isEmpty()) {
+            return;
+        }
+
+        var released = new HashSet<Long>();
+
+        for (var record : records) {
+            released.add(record.getId());
+        }
+
+        leases.computeIfPresent(owner, (key, ids) -> Arrays.stream(ids).filter(it -> !released.contains(it)).toArray());
+    }
+
+    void close() {
+
+        executor.shutdownNow();
+
+        leases.clear();
+    }
+
+    private void extendLeases() {
+
+        List<long[]> inFlight;
+
+        synchronized (leases) {
+            inFlight = new ArrayList<>(leases.values());
+        }
+
+        if (inFlight.isEmpty()) {
+            return;
+        }
+
+        var ids = new long[inFlight.stream().mapToInt(it -> it.length).sum()];
+        var offset = 0;
+
+        for (var it : inFlight) {
+
+            System.arraycopy(it, 0, ids, offset, it.length);
+
+            offset += it.length;
+        }
+
+        try {
+
+            endpoint.getDataProvider().extendLease(endpoint, ids);
+
+            log.trace(() -> String.format("Extended lease of (%s) record(s) on [%s][%s] endpoint", ids.length, endpoint.getGroupId(), endpoint.getId()));
+        } catch (Exception ex) {
+
+            log.warn(ex, () -> String.format("Unable to extend lease of (%s) record(s) on [%s][%s] endpoint", ids.length, endpoint.getGroupId(), endpoint.getId()));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.listener.PartitionKeyExtractor;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Executes the records of a batch on {@link StreamListenerEndpoint#getConcurrency()} serial lanes.
+ * A record is assigned to a lane by the hash of its partition key, each lane runs its records in
+ * batch order within one task. Since a batch completes before the next one starts, records with the
+ * same key are always executed in order.
+ */
+class PartitionedExecutor implements RecordExecutor {
+
+    private static final long SHUTDOWN_TIMEOUT_MINUTES = 1;
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<?> endpoint;
+    private final PartitionKeyExtractor partitionKeyExtractor;
+    private final ExecutorService executor;
+    private final int lanes;
+
+    PartitionedExecutor(StreamListenerEndpoint<?> endpoint) {
+        this.endpoint = endpoint;
+        this.lanes = endpoint.getConcurrency();
+        this.partitionKeyExtractor = Objects.requireNonNullElse(endpoint.getPartitionKeyExtractor(), EventIdAware::getPartitionKey);
+        this.executor = Executors.newFixedThreadPool(lanes, new CustomizableThreadFactory("stream-listener-" + endpoint.getId() + "-lane-"));
+    }
+
+    @Override
+    public <T> void execute(List<T> records, ObjIntConsumer<T> task) {
+
+        var partitions = new ArrayList<List<Integer>>(lanes);
+
+        for (int lane = 0; lane < lanes; lane++) {
+            partitions.add(new ArrayList<>());
+        }
+
+        for (int index = 0; index < records.size(); index++) {
+            partitions.get(getLane(records.get(index))).add(index);
+        }
+
+        var futures = new ArrayList<CompletableFuture<Void>>(lanes);
+
+        for (var partition : partitions) {
+
+            if (partition.isEmpty()) {
+                continue;
+            }
+
+            futures.add(CompletableFuture.runAsync(() -> partition.forEach(index -> task.accept(records.get(index), index)), executor));
+        }
+
+        futures.forEach(CompletableFuture::join);
+    }
+
+    @Override
+    public void close() {
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                log.warn(() -> String.format("Lanes of [%s][%s] endpoint did not terminate in time", endpoint.getGroupId(), endpoint.getId()));
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int getLane(Object record) {
+
+        var key = partitionKeyExtractor.extractKey((EventIdAware) record);
+
+        return Math.floorMod(Objects.hashCode(key), lanes);
+    }
+}
@@ -0,0 +1,96 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pipelined receive for a single endpoint.
+ * Up to {@link StreamListenerEndpoint#getPrefetch()} batches are received ahead on a dedicated thread
+ * while the current batch is executed. Receives are serialized, so batches are handed out in order.
+ * Commits of a pipelined endpoint run through the {@link CommitStage}.
+ * <p>
+ * NOTE: Batches prefetched at {@link #close()} are dropped without a commit, the data provider has to redeliver them
+ * (at-least-once), e.g. once their lock expires.
+ */
+class PrefetchPipeline<T extends EventIdAware> {
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<T> endpoint;
+    private final ExecutorService receiveExecutor;
+    private final Deque<CompletableFuture<List<T>>> batches = new ArrayDeque<>();
+
+    PrefetchPipeline(StreamListenerEndpoint<T> endpoint) {
+        this.endpoint = endpoint;
+        this.receiveExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("stream-listener-" + endpoint.getId() + "-receive-"));
+    }
+
+    /**
+     * Take the next batch and, if it was not empty, top up the prefetch queue.
+     *
+     * @return List may be empty
+     */
+    synchronized List<T> receive() {
+
+        if (batches.isEmpty()) {
+            prefetch();
+        }
+
+        var records = join(batches.poll());
+
+        if (CollectionUtils.isNotEmpty(records)) {
+            prefetch();
+        }
+
+        return records;
+    }
+
+    /**
+     * Release the receive thread.
+     * Prefetched batches are dropped and will be redelivered by the data provider once their lock expires.
+     */
+    synchronized void close() {
+
+        if (!batches.isEmpty()) {
+            log.warn(() -> String.format("Drop (%s) prefetched batch(es) on [%s][%s] endpoint", batches.size(), endpoint.getGroupId(), endpoint.getId()));
+        }
+
+        batches.clear();
+
+        receiveExecutor.shutdownNow();
+    }
+
+    private void prefetch() {
+
+        while (batches.size() < endpoint.getPrefetch()) {
+
+            batches.add(CompletableFuture.supplyAsync(() -> endpoint.getDataProvider().receive(endpoint), receiveExecutor));
+        }
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Failed deliveries per event id of a single endpoint.
+ * An event that failed {@link StreamListenerEndpoint#getQuarantineAfter()} times is quarantined.
+ * The tracker is bounded, the least recently failed events are forgotten first.
+ */
+class QuarantineTracker {
+
+    static final int MAX_TRACKED_EVENTS = 10_000;
+
+    private final StreamListenerEndpoint<?> endpoint;
+
+    private final Map<String, Integer> failures = new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > MAX_TRACKED_EVENTS;
+        }
+    };
+
+    QuarantineTracker(StreamListenerEndpoint<?> endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param eventId may not be null
+     * @return true if the event is quarantined
+     */
+    synchronized boolean isQuarantined(String eventId) {
+
+        var count = failures.get(eventId);
+
+        return count != null && count >= endpoint.getQuarantineAfter();
+    }
+
+    /**
+     * Record a failed delivery.
+     *
+     * @param eventId may not be null
+     * @return true if the event is quarantined by this failure
+     */
+    synchronized boolean failed(String eventId) {
+
+        return failures.merge(eventId, 1, Integer::sum) == endpoint.getQuarantineAfter();
+    }
+
+    /**
+     * Forget the failures of a successful event.
+     *
+     * @param eventId may not be null
+     */
+    synchronized void succeeded(String eventId) {
+
+        if (!failures.isEmpty()) {
+            failures.remove(eventId);
+        }
+    }
+}
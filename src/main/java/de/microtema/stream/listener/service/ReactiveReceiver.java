@@ -0,0 +1,250 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.ReactiveStreamListenerDataProvider;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Push based receive for a single endpoint backed by a {@link ReactiveStreamListenerDataProvider}.
+ * The publisher is subscribed with a demand of two windows of {@link StreamListenerEndpoint#getBatchSize()} records,
+ * so the next window arrives while the current one is executed. Demand is only replenished for records taken
+ * out of the buffer, so a slow listener or commit slows down the publisher instead of piling up records.
+ * A completed or failed publisher is subscribed again after {@link StreamListenerEndpoint#getMaxDelay()}.
+ */
+class ReactiveReceiver<T extends EventIdAware> {
+
+    private static final long IDLE_TIMEOUT_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MINUTES = 1;
+
+    private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
+
+    private final StreamListenerEndpoint<T> endpoint;
+    private final StreamListenerMetrics metrics;
+    private final Consumer<List<T>> consumer;
+    private final int window;
+    private final BlockingQueue<T> buffer;
+    private final ExecutorService executor;
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private volatile WindowSubscriber subscriber;
+
+    ReactiveReceiver(StreamListenerEndpoint<T> endpoint, StreamListenerMetrics metrics, Consumer<List<T>> consumer) {
+        this.endpoint = endpoint;
+        this.metrics = metrics;
+        this.consumer = consumer;
+        this.window = Math.max(1, endpoint.getBatchSize());
+        this.buffer = new ArrayBlockingQueue<>((int) Math.min(Integer.MAX_VALUE, 2L * window));
+        this.executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("stream-listener-" + endpoint.getId() + "-subscriber-"));
+    }
+
+    /**
+     * Subscribe the publisher and start executing the received windows.
+     */
+    void start() {
+
+        executor.execute(this::run);
+    }
+
+    /**
+     * Cancel the subscription and stop the subscriber thread, a running window completes.
+     * Buffered records are dropped and will be redelivered by the data provider.
+     */
+    void close() {
+
+        closed.countDown();
+
+        cancel();
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                log.warn(() -> String.format("Subscriber of [%s][%s] endpoint did not terminate in time", endpoint.getGroupId(), endpoint.getId()));
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        if (!buffer.isEmpty()) {
+            log.warn(() -> String.format("Drop (%s) buffered record(s) on [%s][%s] endpoint", buffer.size(), endpoint.getGroupId(), endpoint.getId()));
+        }
+
+        buffer.clear();
+    }
+
+    private void run() {
+
+        try {
+            while (!isClosed()) {
+
+                subscribe();
+
+                drain();
+
+                log.debug(() -> String.format("Publisher of [%s][%s] endpoint terminated, subscribe again in [%s] ms", endpoint.getGroupId(), endpoint.getId(), endpoint.getMaxDelay()));
+
+                closed.await(endpoint.getMaxDelay(), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void subscribe() {
+
+        var current = new WindowSubscriber();
+
+        subscriber = current;
+
+        try {
+            var dataProvider = (ReactiveStreamListenerDataProvider<T>) endpoint.getDataProvider();
+
+            dataProvider.publish(endpoint).subscribe(current);
+        } catch (Exception ex) {
+
+            current.onError(ex);
+        }
+    }
+
+    private void drain() throws InterruptedException {
+
+        while (!isClosed()) {
+
+            var record = buffer.poll(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+            if (record == null) {
+
+                if (subscriber.terminated && buffer.isEmpty()) {
+                    return;
+                }
+
+                continue;
+            }
+
+            var start = metrics.start();
+
+            var records = new ArrayList<T>(Math.min(window, buffer.size() + 1));
+
+            records.add(record);
+
+            buffer.drainTo(records, window - 1);
+
+            metrics.received(endpoint, start, records.size());
+
+            subscriber.request(records.size());
+
+            try {
+                consumer.accept(records);
+            } catch (Exception ex) {
+
+                log.error(ex, () -> String.format("Unable to execute (%s) record(s) on [%s][%s] endpoint", records.size(), endpoint.getGroupId(), endpoint.getId()));
+            }
+        }
+    }
+
+    private boolean isClosed() {
+
+        return closed.getCount() == 0;
+    }
+
+    private void cancel() {
+
+        var current = subscriber;
+
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * Subscriber of a single subscription, signals of a cancelled subscription are ignored.
+     */
+    private class WindowSubscriber implements Flow.Subscriber<T> {
+
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+        private volatile boolean terminated;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+
+            if (this.subscription != null || cancelled || isClosed()) {
+
+                subscription.cancel();
+
+                return;
+            }
+
+            this.subscription = subscription;
+
+            subscription.request(buffer.remainingCapacity());
+        }
+
+        @Override
+        public void onNext(T record) {
+
+            if (cancelled) {
+                return;
+            }
+
+            if (!buffer.offer(record)) {
+
+                log.error(() -> String.format("Publisher of [%s][%s] endpoint exceeded the requested demand, cancel subscription", endpoint.getGroupId(), endpoint.getId()));
+
+                cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+
+            log.error(throwable, () -> String.format("Publisher of [%s][%s] endpoint failed", endpoint.getGroupId(), endpoint.getId()));
+
+            terminated = true;
+        }
+
+        @Override
+        public void onComplete() {
+
+            terminated = true;
+        }
+
+        void request(long n) {
+
+            var current = subscription;
+
+            if (current != null && !cancelled) {
+                current.request(n);
+            }
+        }
+
+        void cancel() {
+
+            cancelled = true;
+            terminated = true;
+
+            var current = subscription;
+
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
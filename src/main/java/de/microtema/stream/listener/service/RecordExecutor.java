@@ -0,0 +1,23 @@
+package de.microtema.stream.listener.service;
+
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Executes the records of a batch concurrently on behalf of a single endpoint.
+ */
+interface RecordExecutor {
+
+    /**
+     * Execute the task for each record and its index within the batch, returns once all tasks completed.
+     *
+     * @param records may not be null
+     * @param task    may not be null
+     */
+    <T> void execute(List<T> records, ObjIntConsumer<T> task);
+
+    /**
+     * Wait for running tasks and release the threads.
+     */
+    void close();
+}
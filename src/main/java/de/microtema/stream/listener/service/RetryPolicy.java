@@ -0,0 +1,85 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process retry of a failing invocation.
+ * An invocation is retried up to {@link StreamListenerEndpoint#getMaxAttempts()} attempts, if the exception
+ * or one of its causes is one of the {@link StreamListenerEndpoint#getRetryableExceptions()} (any, if none are set).
+ * Retries back off exponentially from {@link StreamListenerEndpoint#getRetryDelay()} up to
+ * {@link StreamListenerEndpoint#getRetryMaxDelay()} on the invoking thread.
+ */
+class RetryPolicy {
+
+    private static final int MAX_SHIFT = 30;
+
+    private final StreamListenerEndpoint<?> endpoint;
+
+    RetryPolicy(StreamListenerEndpoint<?> endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @param attempt   number of the failed attempt, starting at one
+     * @param exception may not be null
+     * @return true if the invocation should be retried
+     */
+    boolean canRetry(int attempt, Exception exception) {
+
+        return attempt < endpoint.getMaxAttempts() && isRetryable(exception);
+    }
+
+    /**
+     * Sleep before the next attempt.
+     *
+     * @param attempt number of the failed attempt, starting at one
+     * @return false if the thread was interrupted and the invocation should not be retried
+     */
+    boolean backOff(int attempt) {
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(getDelay(attempt));
+
+            return true;
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+
+            return false;
+        }
+    }
+
+    long getDelay(int attempt) {
+
+        var retryDelay = Math.max(0, endpoint.getRetryDelay());
+        var delay = retryDelay << Math.min(attempt - 1, MAX_SHIFT);
+
+        if (delay < retryDelay || delay > endpoint.getRetryMaxDelay()) {
+            return Math.max(retryDelay, endpoint.getRetryMaxDelay());
+        }
+
+        return delay;
+    }
+
+    private boolean isRetryable(Exception exception) {
+
+        var retryableExceptions = endpoint.getRetryableExceptions();
+
+        if (Objects.isNull(retryableExceptions) || retryableExceptions.length == 0) {
+            return true;
+        }
+
+        for (Throwable cause = exception; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            for (var retryableException : retryableExceptions) {
+                if (retryableException.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -1,26 +1,28 @@
 package de.microtema.stream.listener.service;
 
-import de.microtema.stream.listener.converter.EventDataToResponseStatusConverter;
 import de.microtema.stream.listener.listener.RecordFilterStrategy;
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.CircuitState;
 import de.microtema.stream.listener.model.EventIdAware;
 import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.RecordSource;
+import de.microtema.stream.listener.support.CommitBatch;
 import de.microtema.stream.listener.support.ResponseState;
-import de.microtema.stream.listener.support.ResponseStatus;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.log.LogAccessor;
 import org.springframework.stereotype.Service;
-import org.springframework.util.ReflectionUtils;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 
 @Service
@@ -29,58 +31,360 @@ public class StreamListenerExecutionService<T extends EventIdAware> {
 
     private final LogAccessor log = new LogAccessor(LogFactory.getLog(getClass()));
 
-    private final EventDataToResponseStatusConverter<T> responseStatusConverter;
+    private final StreamListenerMetrics metrics;
+    private final Map<String, ReactiveReceiver<T>> reactiveReceivers = new ConcurrentHashMap<>();
+    private final Map<String, PrefetchPipeline<T>> prefetchPipelines = new ConcurrentHashMap<>();
+    private final Map<String, CommitStage<T>> commitStages = new ConcurrentHashMap<>();
+    private final Map<String, RecordExecutor> recordExecutors = new ConcurrentHashMap<>();
+    private final Map<String, AdaptiveBatchSize> adaptiveBatchSizes = new ConcurrentHashMap<>();
+    private final Map<String, RetryPolicy> retryPolicies = new ConcurrentHashMap<>();
+    private final Map<String, QuarantineTracker> quarantineTrackers = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, LeaseHeartbeat<T>> leaseHeartbeats = new ConcurrentHashMap<>();
+    private final Map<String, DedupCache> dedupCaches = new ConcurrentHashMap<>();
+
+    public StreamListenerExecutionService(ObjectProvider<StreamListenerMetrics> metrics) {
+        this.metrics = metrics.getIfAvailable(() -> StreamListenerMetrics.NOOP);
+    }
+
+    /**
+     * Receive, execute and commit the next batch of given endpoint.
+     *
+     * @param endpoint may not be null
+     * @return number of received records
+     */
+    public int executeEndpointMethod(StreamListenerEndpoint<T> endpoint) {
+
+        var circuitBreaker = CircuitBreaker.isEnabled(endpoint) ? getCircuitBreaker(endpoint) : null;
+
+        if (circuitBreaker != null && !circuitBreaker.allowReceive()) {
+
+            log.trace(() -> String.format("Skip receive of [%s][%s] endpoint due to open circuit", endpoint.getGroupId(), endpoint.getId()));
+
+            return 0;
+        }
+
+        var batchSize = endpoint.getBatchSize();
+        var probeBatchSize = circuitBreaker == null ? batchSize : circuitBreaker.getBatchSize(batchSize);
+        var startMillis = System.currentTimeMillis();
+
+        var cycle = endpoint.getChunkSize() > 0 ? executeChunks(endpoint, probeBatchSize) : executeBatch(endpoint, probeBatchSize);
+
+        if (circuitBreaker != null) {
+            circuitBreaker.record(cycle.received(), cycle.errors());
+        }
+
+        if (probeBatchSize == batchSize && AdaptiveBatchSize.isEnabled(endpoint)) {
+            getAdaptiveBatchSize(endpoint).update(batchSize, cycle.received(), cycle.errors(), System.currentTimeMillis() - startMillis);
+        }
+
+        return cycle.received();
+    }
+
+    /**
+     * @param endpointId may not be null
+     * @return state of the circuit breaker of given endpoint, CLOSED if the endpoint has none
+     */
+    public CircuitState getCircuitState(String endpointId) {
+
+        var circuitBreaker = circuitBreakers.get(endpointId);
+
+        return circuitBreaker == null ? CircuitState.CLOSED : circuitBreaker.getState();
+    }
+
+    /**
+     * Subscribe the reactive data provider of given endpoint, records are executed and committed as they arrive.
+     *
+     * @param endpoint may not be null
+     */
+    public void subscribe(StreamListenerEndpoint<T> endpoint) {
+
+        reactiveReceivers.computeIfAbsent(endpoint.getId(), it -> {
+
+            var reactiveReceiver = new ReactiveReceiver<>(endpoint, metrics, records -> executeImpl(endpoint, records));
+
+            reactiveReceiver.start();
+
+            return reactiveReceiver;
+        });
+    }
+
+    /**
+     * Cancel the subscriptions, release the prefetch pipelines and record executors and flush pending commits.
+     */
+    public void destroy() {
+
+        reactiveReceivers.values().forEach(ReactiveReceiver::close);
+        reactiveReceivers.clear();
+
+        prefetchPipelines.values().forEach(PrefetchPipeline::close);
+        prefetchPipelines.clear();
 
-    public StreamListenerExecutionService(EventDataToResponseStatusConverter<T> responseStatusConverter) {
-        this.responseStatusConverter = responseStatusConverter;
+        recordExecutors.values().forEach(RecordExecutor::close);
+        recordExecutors.clear();
+
+        commitStages.values().forEach(CommitStage::close);
+        commitStages.clear();
+
+        leaseHeartbeats.values().forEach(LeaseHeartbeat::close);
+        leaseHeartbeats.clear();
     }
 
-    public boolean executeEndpointMethod(StreamListenerEndpoint<T> endpoint) {
+    /**
+     * @param batchSize max number of records to receive, below the batch size of the endpoint for a half open circuit probe
+     */
+    private Cycle executeBatch(StreamListenerEndpoint<T> endpoint, int batchSize) {
 
-        var dataProvider = endpoint.getDataProvider();
+        var start = metrics.start();
 
-        var records = dataProvider.receive(endpoint);
+        var records = receive(endpoint, batchSize);
+
+        metrics.received(endpoint, start, CollectionUtils.size(records));
 
         if (CollectionUtils.isEmpty(records)) {
 
             log.trace(() -> String.format("Skip invocation of [%s][%s] endpoint due to empty records", endpoint.getGroupId(), endpoint.getId()));
 
-            return false;
+            return new Cycle(0, 0);
         }
 
-        log.trace(() -> String.format("Received ({}) record(s) for [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()));
+        log.trace(() -> String.format("Received (%s) record(s) for [%s][%s] endpoint", records.size(), endpoint.getGroupId(), endpoint.getId()));
 
-        executeImpl(endpoint, records);
+        var errors = executeImpl(endpoint, records);
 
-        return true;
+        return new Cycle(records.size(), errors);
     }
 
-    private void executeImpl(StreamListenerEndpoint<T> endpoint, List<T> records) {
+    /**
+     * Pull, execute and commit the records of given endpoint chunk by chunk, so only one chunk is held in memory.
+     * The record source is closed once the last chunk is committed.
+     */
+    private Cycle executeChunks(StreamListenerEndpoint<T> endpoint, int batchSize) {
+
+        var received = 0;
+        var errors = 0;
+
+        try (var recordSource = endpoint.getDataProvider().open(getReceiveEndpoint(endpoint, batchSize))) {
+
+            var start = metrics.start();
+            var records = nextChunk(recordSource, endpoint.getChunkSize());
+
+            while (!records.isEmpty()) {
+
+                metrics.received(endpoint, start, records.size());
+
+                errors += executeImpl(endpoint, records);
+
+                received += records.size();
+
+                start = metrics.start();
+                records = nextChunk(recordSource, endpoint.getChunkSize());
+            }
+
+            if (received == 0) {
+
+                metrics.received(endpoint, start, 0);
+
+                log.trace(() -> String.format("Skip invocation of [%s][%s] endpoint due to empty records", endpoint.getGroupId(), endpoint.getId()));
+            }
+        }
+
+        return new Cycle(received, errors);
+    }
+
+    private List<T> nextChunk(RecordSource<T> recordSource, int chunkSize) {
+
+        var records = new ArrayList<T>();
+
+        while (records.size() < chunkSize && recordSource.hasNext()) {
+            records.add(recordSource.next());
+        }
+
+        return records;
+    }
+
+    private List<T> receive(StreamListenerEndpoint<T> endpoint, int batchSize) {
+
+        if (endpoint.getPrefetch() < 1 || batchSize != endpoint.getBatchSize()) {
+            return endpoint.getDataProvider().receive(getReceiveEndpoint(endpoint, batchSize));
+        }
+
+        return getPrefetchPipeline(endpoint).receive();
+    }
+
+    /**
+     * The data provider reads the number of records to receive from the endpoint. A probe receives through a copy
+     * of the endpoint instead of changing the shared endpoint, which the prefetch pipeline and the reactive receiver
+     * read concurrently.
+     */
+    private StreamListenerEndpoint<T> getReceiveEndpoint(StreamListenerEndpoint<T> endpoint, int batchSize) {
+
+        if (batchSize == endpoint.getBatchSize()) {
+            return endpoint;
+        }
+
+        var receiveEndpoint = new StreamListenerEndpoint<T>();
+
+        // NOTE: The deprecated cron would recompute the max delay, depending on the order properties are copied in
+        BeanUtils.copyProperties(endpoint, receiveEndpoint, "cron");
+
+        receiveEndpoint.setBatchSize(batchSize);
+
+        return receiveEndpoint;
+    }
+
+    private void commit(StreamListenerEndpoint<T> endpoint, CommitBatch commitBatch) {
+
+        if (endpoint.getPrefetch() < 1 && endpoint.getCommitSize() < 1) {
+
+            var start = metrics.start();
+
+            try {
+                endpoint.getDataProvider().commit(endpoint, commitBatch);
+            } catch (RuntimeException e) {
+
+                metrics.commitFailed(endpoint, commitBatch.size());
+
+                throw e;
+            } finally {
+                committed(endpoint, commitBatch);
+            }
+
+            metrics.committed(endpoint, start, commitBatch.size());
+        } else {
+            getCommitStage(endpoint).commit(commitBatch);
+        }
+    }
+
+    /**
+     * Stop renewing the leases of the committed records.
+     */
+    private void committed(StreamListenerEndpoint<T> endpoint, CommitBatch commitBatch) {
+
+        if (LeaseHeartbeat.isEnabled(endpoint)) {
+            getLeaseHeartbeat(endpoint).release(commitBatch);
+        }
+    }
+
+    private PrefetchPipeline<T> getPrefetchPipeline(StreamListenerEndpoint<T> endpoint) {
+
+        return prefetchPipelines.computeIfAbsent(endpoint.getId(), it -> new PrefetchPipeline<>(endpoint));
+    }
+
+    private RecordExecutor getRecordExecutor(StreamListenerEndpoint<T> endpoint) {
+
+        return recordExecutors.computeIfAbsent(endpoint.getId(), it -> createRecordExecutor(endpoint));
+    }
+
+    private RecordExecutor createRecordExecutor(StreamListenerEndpoint<T> endpoint) {
+
+        switch (endpoint.getExecutionMode()) {
+            case PARTITIONED:
+                return new PartitionedExecutor(endpoint);
+            case VIRTUAL:
+                return VirtualThreadExecutor.create(endpoint, metrics);
+            default:
+                return new EndpointWorkerPool(endpoint, metrics);
+        }
+    }
+
+    private CommitStage<T> getCommitStage(StreamListenerEndpoint<T> endpoint) {
+
+        return commitStages.computeIfAbsent(endpoint.getId(), it -> new CommitStage<>(endpoint, metrics, commitBatch -> committed(endpoint, commitBatch)));
+    }
+
+    private AdaptiveBatchSize getAdaptiveBatchSize(StreamListenerEndpoint<T> endpoint) {
+
+        return adaptiveBatchSizes.computeIfAbsent(endpoint.getId(), it -> new AdaptiveBatchSize(endpoint));
+    }
+
+    private RetryPolicy getRetryPolicy(StreamListenerEndpoint<T> endpoint) {
+
+        return retryPolicies.computeIfAbsent(endpoint.getId(), it -> new RetryPolicy(endpoint));
+    }
+
+    private QuarantineTracker getQuarantineTracker(StreamListenerEndpoint<T> endpoint) {
+
+        return quarantineTrackers.computeIfAbsent(endpoint.getId(), it -> new QuarantineTracker(endpoint));
+    }
+
+    private DedupCache getDedupCache(StreamListenerEndpoint<T> endpoint) {
+
+        return dedupCaches.computeIfAbsent(endpoint.getId(), it -> new DedupCache(endpoint));
+    }
+
+    private LeaseHeartbeat<T> getLeaseHeartbeat(StreamListenerEndpoint<T> endpoint) {
+
+        return leaseHeartbeats.computeIfAbsent(endpoint.getId(), it -> new LeaseHeartbeat<>(endpoint));
+    }
+
+    private CircuitBreaker getCircuitBreaker(StreamListenerEndpoint<T> endpoint) {
+
+        return circuitBreakers.computeIfAbsent(endpoint.getId(), it -> new CircuitBreaker(endpoint, metrics));
+    }
+
+    /**
+     * Execute and commit given records.
+     *
+     * @return number of failed records
+     */
+    private int executeImpl(StreamListenerEndpoint<T> endpoint, List<T> records) {
 
-        var dataProvider = endpoint.getDataProvider();
         var endpointId = endpoint.getId();
-        var batch = endpoint.isBatch();
+        var size = records.size();
 
-        List<ResponseStatus> responses;
+        CommitBatch commitBatch = null;
         var startMillis = System.currentTimeMillis();
+        var start = metrics.start();
 
-        if (batch) {
+        var leaseHeartbeat = LeaseHeartbeat.isEnabled(endpoint) ? getLeaseHeartbeat(endpoint) : null;
 
-            responses = executeEndpoint(endpoint, records);
-        } else if (endpoint.isConcurrency()) {
+        if (leaseHeartbeat != null) {
+            leaseHeartbeat.acquire(records);
+        }
 
-            responses = records.stream().parallel().map(it -> executeEndpoint(endpoint, it)).collect(Collectors.toList());
+        metrics.executing(endpoint, size);
 
-        } else {
+        try {
+            commitBatch = execute(endpoint, records);
+        } finally {
+            metrics.executed(endpoint, start, size, commitBatch);
 
-            responses = records.stream().map(it -> executeEndpoint(endpoint, it)).collect(Collectors.toList());
+            if (leaseHeartbeat != null) {
+                leaseHeartbeat.transfer(records, commitBatch);
+            }
         }
 
         var durationFormat = getDuration(startMillis);
 
-        log.info(() -> String.format("Invocation of [%s][%s] endpoint within (%s) record(s) completed. Duration [%s]", endpoint.getGroupId(), endpointId, records.size(), durationFormat));
+        log.info(() -> String.format("Invocation of [%s][%s] endpoint within (%s) record(s) completed. Duration [%s]", endpoint.getGroupId(), endpointId, size, durationFormat));
 
-        dataProvider.commit(endpoint, responses);
+        commit(endpoint, commitBatch);
+
+        return commitBatch.count(ResponseState.ERROR);
+    }
+
+    private CommitBatch execute(StreamListenerEndpoint<T> endpoint, List<T> records) {
+
+        if (endpoint.isBatch()) {
+
+            return executeEndpoint(endpoint, records);
+        }
+
+        var commitBatch = new CommitBatch(records.size());
+
+        if (endpoint.getConcurrency() > 1) {
+
+            getRecordExecutor(endpoint).execute(records, (record, index) -> executeEndpoint(endpoint, record, index, commitBatch));
+
+            return commitBatch;
+        }
+
+        for (int index = 0; index < records.size(); index++) {
+            executeEndpoint(endpoint, records.get(index), index, commitBatch);
+        }
+
+        return commitBatch;
     }
 
     private String getDuration(long startMillis) {
@@ -90,105 +394,312 @@ public class StreamListenerExecutionService<T extends EventIdAware> {
         return DurationFormatUtils.formatDurationHMS(duration);
     }
 
-    private Object[] concatMethodParameters(Object recordOrRecords, Object... methodParameters) {
+    private void executeEndpoint(StreamListenerEndpoint<T> endpoint, T record, int index, CommitBatch commitBatch) {
+
+        if (isSkipped(record, endpoint.getRecordFilterStrategy()) || isDuplicate(record, endpoint)) {
+
+            commitBatch.set(index, record.getId(), ResponseState.SKIPPED, null);
+
+            return;
+        }
+
+        var quarantine = endpoint.getQuarantineAfter() > 0;
+
+        if (quarantine && getQuarantineTracker(endpoint).isQuarantined(record.getEventId())) {
+
+            commitBatch.set(index, record.getId(), ResponseState.QUARANTINED, null);
+
+            return;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+
+            try {
+
+                endpoint.getInvoker().invoke(record);
+
+                commitBatch.set(index, record.getId(), ResponseState.OK, null);
 
-        var arguments = new Object[1 + methodParameters.length];
+                if (quarantine) {
+                    getQuarantineTracker(endpoint).succeeded(record.getEventId());
+                }
 
-        arguments[0] = recordOrRecords;
+                if (DedupCache.isEnabled(endpoint)) {
+                    getDedupCache(endpoint).add(record.getEventId());
+                }
 
-        System.arraycopy(methodParameters, 0, arguments, 1, methodParameters.length);
+                return;
+            } catch (Exception ex) {
 
-        return arguments;
+                if (retry(endpoint, attempt, ex)) {
+                    continue;
+                }
+
+                handleError(record, ex, endpoint);
+
+                // NOTE: The record id is part of the commit, so equal failures share one message
+                var message = String.format("Unable to execute endpoint [%s]. Message: %s", endpoint.getId(), ex.getMessage());
+
+                commitBatch.set(index, record.getId(), getFailedState(endpoint, record), message);
+
+                return;
+            }
+        }
     }
 
-    private ResponseStatus executeEndpoint(StreamListenerEndpoint<T> endpoint, T record) {
+    private CommitBatch executeEndpoint(StreamListenerEndpoint<T> endpoint, List<T> receivedRecords) {
 
-        var methodParameters = endpoint.getMethodParameters();
-        var endpointBean = endpoint.getBean();
-        var endpointMethod = endpoint.getMethod();
+        var skippedRecords = filterRecordsIfNecessary(receivedRecords, endpoint.getRecordFilterStrategy());
+        var duplicateRecords = new ArrayList<T>();
+        var quarantinedRecords = new ArrayList<T>();
 
-        var responseStatus = filterRecordIfNecessary(record, endpoint.getRecordFilterStrategy());
+        // NOTE: The received list may be unmodifiable, the records to execute are collected into a new list
+        var records = removeQuarantinedRecordsIfNecessary(removeDuplicateRecordsIfNecessary(receivedRecords, endpoint, duplicateRecords), endpoint, quarantinedRecords);
 
-        if (Objects.nonNull(responseStatus)) {
-            return responseStatus;
+        // Removed records are committed without execution, so their leases are not renewed any further
+        if (LeaseHeartbeat.isEnabled(endpoint)) {
+            getLeaseHeartbeat(endpoint).release(receivedRecords, duplicateRecords);
+            getLeaseHeartbeat(endpoint).release(receivedRecords, quarantinedRecords);
         }
 
-        var parameters = concatMethodParameters(record, methodParameters);
+        var commitBatch = new CommitBatch(skippedRecords.size() + duplicateRecords.size() + quarantinedRecords.size() + records.size());
+        var index = 0;
 
-        try {
+        for (var record : skippedRecords) {
+            commitBatch.set(index++, record.getId(), ResponseState.SKIPPED, null);
+        }
 
-            executeEndpointMethod(endpointMethod, endpointBean, parameters);
+        for (var record : duplicateRecords) {
+            commitBatch.set(index++, record.getId(), ResponseState.SKIPPED, null);
+        }
 
-            return responseStatusConverter.convert(record);
-        } catch (Exception ex) {
+        for (var record : quarantinedRecords) {
+            commitBatch.set(index++, record.getId(), ResponseState.QUARANTINED, null);
+        }
+
+        if (records.isEmpty()) {
+            return commitBatch;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+
+            try {
+
+                endpoint.getInvoker().invoke(records);
 
-            handleError(record, ex, endpoint);
+                setSucceeded(endpoint, records, index, commitBatch);
 
-            var message = String.format("Unable to execute endpoint [%s] record [%s]. Message: %s", endpoint.getId(), record.getEventId(), ex.getMessage());
+                return commitBatch;
+            } catch (Exception ex) {
 
-            return responseStatusConverter.convert(record, message);
+                if (retry(endpoint, attempt, ex)) {
+                    continue;
+                }
+
+                bisect(endpoint, records, ex, index, commitBatch, endpoint.getMaxBisectInvocations());
+
+                return commitBatch;
+            }
+        }
+    }
+
+    /**
+     * Split failed records in halves and invoke the listener on each half, until the failing records are isolated
+     * or the invocations are spent. Records of a half that can not be split or invoked any further fail.
+     *
+     * @param invocations remaining listener invocations
+     * @return remaining listener invocations
+     */
+    private int bisect(StreamListenerEndpoint<T> endpoint, List<T> records, Exception exception, int index, CommitBatch commitBatch, int invocations) {
+
+        if (records.size() < 2 || invocations < 2) {
+
+            setFailed(endpoint, records, exception, index, commitBatch);
+
+            return invocations;
         }
+
+        log.debug(() -> String.format("Bisect (%s) failed record(s) of [%s][%s] endpoint. Message: %s", records.size(), endpoint.getGroupId(), endpoint.getId(), exception.getMessage()));
+
+        var middle = records.size() / 2;
+
+        invocations = invokeOrBisect(endpoint, records.subList(0, middle), exception, index, commitBatch, invocations);
+
+        return invokeOrBisect(endpoint, records.subList(middle, records.size()), exception, index + middle, commitBatch, invocations);
     }
 
-    private List<ResponseStatus> executeEndpoint(StreamListenerEndpoint<T> endpoint, List<T> records) {
+    private int invokeOrBisect(StreamListenerEndpoint<T> endpoint, List<T> records, Exception exception, int index, CommitBatch commitBatch, int invocations) {
+
+        if (invocations < 1) {
 
-        var methodParameters = endpoint.getMethodParameters();
-        var endpointBean = endpoint.getBean();
-        var endpointMethod = endpoint.getMethod();
+            setFailed(endpoint, records, exception, index, commitBatch);
 
-        var responseStatuses = filterRecordsIfNecessary(records, endpoint.getRecordFilterStrategy());
+            return invocations;
+        }
 
-        var parameters = concatMethodParameters(records, methodParameters);
+        // Hand out a copy, so the listener may not modify the records of the other half
+        var half = new ArrayList<>(records);
 
         try {
 
-            executeEndpointMethod(endpointMethod, endpointBean, parameters);
+            endpoint.getInvoker().invoke(half);
 
-            responseStatuses.addAll(responseStatusConverter.convertList(records));
+            setSucceeded(endpoint, half, index, commitBatch);
+
+            return invocations - 1;
         } catch (Exception ex) {
 
-            handleError(records, ex, endpoint);
+            return bisect(endpoint, half, ex, index, commitBatch, invocations - 1);
+        }
+    }
+
+    private void setSucceeded(StreamListenerEndpoint<T> endpoint, List<T> records, int index, CommitBatch commitBatch) {
 
-            var message = String.format("Unable to execute endpoint [%s] within (%s) record(s). Message: %s", endpoint.getId(), records.size(), ex.getMessage());
+        for (var record : records) {
 
-            responseStatuses.addAll(responseStatusConverter.convertList(records, message));
+            commitBatch.set(index++, record.getId(), ResponseState.OK, null);
+
+            if (endpoint.getQuarantineAfter() > 0) {
+                getQuarantineTracker(endpoint).succeeded(record.getEventId());
+            }
+
+            if (DedupCache.isEnabled(endpoint)) {
+                getDedupCache(endpoint).add(record.getEventId());
+            }
+        }
+    }
+
+    private void setFailed(StreamListenerEndpoint<T> endpoint, List<T> records, Exception exception, int index, CommitBatch commitBatch) {
+
+        handleError(records, exception, endpoint);
+
+        var message = String.format("Unable to execute endpoint [%s] within (%s) record(s). Message: %s", endpoint.getId(), records.size(), exception.getMessage());
+
+        // NOTE: Only a failure of a single record is pinned on the record, its batch-mates are not counted towards quarantine
+        if (records.size() == 1) {
+
+            commitBatch.set(index, records.get(0).getId(), getFailedState(endpoint, records.get(0)), message);
+
+            return;
         }
 
-        return responseStatuses;
+        for (var record : records) {
+            commitBatch.set(index++, record.getId(), ResponseState.ERROR, message);
+        }
     }
 
-    private List<ResponseStatus> filterRecordsIfNecessary(List<T> records, RecordFilterStrategy<T> recordFilterStrategy) {
+    /**
+     * @return true if the failed attempt should be retried, after the backoff
+     */
+    private boolean retry(StreamListenerEndpoint<T> endpoint, int attempt, Exception exception) {
 
-        if (Objects.isNull(recordFilterStrategy)) {
-            return new ArrayList<>();
+        var retryPolicy = getRetryPolicy(endpoint);
+
+        if (!retryPolicy.canRetry(attempt, exception)) {
+            return false;
         }
 
-        var filterBatch = recordFilterStrategy.filterBatch(records);
+        log.debug(() -> String.format("Retry attempt (%s) of [%s][%s] endpoint in [%s] ms. Message: %s", attempt, endpoint.getGroupId(), endpoint.getId(), retryPolicy.getDelay(attempt), exception.getMessage()));
+
+        return retryPolicy.backOff(attempt);
+    }
+
+    private ResponseState getFailedState(StreamListenerEndpoint<T> endpoint, T record) {
 
-        var responseStatuses = responseStatusConverter.convertList(filterBatch);
+        if (endpoint.getQuarantineAfter() < 1 || !getQuarantineTracker(endpoint).failed(record.getEventId())) {
+            return ResponseState.ERROR;
+        }
 
-        responseStatuses.forEach(it -> it.setState(ResponseState.SKIPPED));
+        log.error(() -> String.format("Quarantine record [%s] of [%s][%s] endpoint after (%s) failed deliveries", record.getEventId(), endpoint.getGroupId(), endpoint.getId(), endpoint.getQuarantineAfter()));
 
-        return new ArrayList<>(responseStatuses);
+        return ResponseState.QUARANTINED;
     }
 
-    private ResponseStatus filterRecordIfNecessary(T record, RecordFilterStrategy<T> recordFilterStrategy) {
+    /**
+     * @return true if the event of the record was processed recently
+     */
+    private boolean isDuplicate(T record, StreamListenerEndpoint<T> endpoint) {
 
-        if (Objects.isNull(recordFilterStrategy)) {
-            return null;
+        if (!DedupCache.isEnabled(endpoint)) {
+            return false;
         }
 
-        var filterRecord = recordFilterStrategy.filter(record);
+        var duplicate = getDedupCache(endpoint).contains(record.getEventId());
+
+        metrics.deduplicated(endpoint, duplicate);
 
-        if (filterRecord) {
-            return null;
+        if (duplicate) {
+            log.debug(() -> String.format("Skip processed record [%s] of [%s][%s] endpoint", record.getEventId(), endpoint.getGroupId(), endpoint.getId()));
         }
 
-        var responseStatus = responseStatusConverter.convert(record);
+        return duplicate;
+    }
+
+    /**
+     * Remove the recently processed records from given records.
+     *
+     * @param duplicateRecords collects the duplicate records
+     * @return the records to execute
+     */
+    private List<T> removeDuplicateRecordsIfNecessary(List<T> records, StreamListenerEndpoint<T> endpoint, List<T> duplicateRecords) {
 
-        responseStatus.setState(ResponseState.SKIPPED);
+        if (!DedupCache.isEnabled(endpoint)) {
+            return records;
+        }
 
-        return responseStatus;
+        return removeRecords(records, it -> isDuplicate(it, endpoint), duplicateRecords);
+    }
+
+    /**
+     * Remove the quarantined records from given records.
+     *
+     * @param quarantinedRecords collects the quarantined records
+     * @return the records to execute
+     */
+    private List<T> removeQuarantinedRecordsIfNecessary(List<T> records, StreamListenerEndpoint<T> endpoint, List<T> quarantinedRecords) {
+
+        if (endpoint.getQuarantineAfter() < 1) {
+            return records;
+        }
+
+        var quarantineTracker = getQuarantineTracker(endpoint);
+
+        return removeRecords(records, it -> quarantineTracker.isQuarantined(it.getEventId()), quarantinedRecords);
+    }
+
+    /**
+     * Split the records in a single pass, given records are not modified.
+     *
+     * @param removedRecords collects the matching records
+     * @return the remaining records, given records if none matched
+     */
+    private List<T> removeRecords(List<T> records, Predicate<T> predicate, List<T> removedRecords) {
+
+        var remainingRecords = new ArrayList<T>(records.size());
+
+        for (var record : records) {
+            (predicate.test(record) ? removedRecords : remainingRecords).add(record);
+        }
+
+        return remainingRecords.size() == records.size() ? records : remainingRecords;
+    }
+
+    private List<T> filterRecordsIfNecessary(List<T> records, RecordFilterStrategy<T> recordFilterStrategy) {
+
+        if (Objects.isNull(recordFilterStrategy)) {
+            return List.of();
+        }
+
+        return recordFilterStrategy.filterBatch(records);
+    }
+
+    private boolean isSkipped(T record, RecordFilterStrategy<T> recordFilterStrategy) {
+
+        if (Objects.isNull(recordFilterStrategy)) {
+            return false;
+        }
+
+        return !recordFilterStrategy.filter(record);
     }
 
     private void handleError(T record, Exception exception, StreamListenerEndpoint<T> endpoint) {
@@ -213,15 +724,9 @@ public class StreamListenerExecutionService<T extends EventIdAware> {
         errorHandler.handleError(records, exception, endpoint);
     }
 
-    private void executeEndpointMethod(Method endpointMethod, Object endpointBean, Object... args) {
-
-        try {
-            ReflectionUtils.makeAccessible(endpointMethod);
-            endpointMethod.invoke(endpointBean, args);
-        } catch (InvocationTargetException ex) {
-            ReflectionUtils.rethrowRuntimeException(ex.getTargetException());
-        } catch (IllegalAccessException ex) {
-            throw new UndeclaredThrowableException(ex);
-        }
+    /**
+     * Outcome of a single receive, execute and commit cycle.
+     */
+    private record Cycle(int received, int errors) {
     }
 }
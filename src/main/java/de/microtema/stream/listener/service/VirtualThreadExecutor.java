@@ -0,0 +1,155 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.log.LogAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Executes each record on its own virtual thread.
+ * A semaphore of {@link StreamListenerEndpoint#getConcurrency()} permits caps the records in flight,
+ * the listener thread waits for a permit before the next record is started.
+ * <p>
+ * NOTE: Virtual threads require Java 21, the factory method is therefore looked up at runtime.
+ */
+class VirtualThreadExecutor implements RecordExecutor {
+
+    private static final long SHUTDOWN_TIMEOUT_MINUTES = 1;
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookupVirtualThreadPerTaskExecutor();
+
+    private static final LogAccessor LOG = new LogAccessor(LogFactory.getLog(VirtualThreadExecutor.class));
+
+    private final StreamListenerEndpoint<?> endpoint;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    VirtualThreadExecutor(StreamListenerEndpoint<?> endpoint) {
+        this(endpoint, newVirtualThreadPerTaskExecutor());
+    }
+
+    VirtualThreadExecutor(StreamListenerEndpoint<?> endpoint, ExecutorService executor) {
+        this.endpoint = endpoint;
+        this.executor = executor;
+        this.permits = new Semaphore(endpoint.getConcurrency());
+    }
+
+    /**
+     * @param endpoint may not be null
+     * @param metrics  may not be null
+     * @return virtual thread executor, or a platform thread pool if the runtime does not support virtual threads
+     */
+    static RecordExecutor create(StreamListenerEndpoint<?> endpoint, StreamListenerMetrics metrics) {
+
+        if (isSupported()) {
+            return new VirtualThreadExecutor(endpoint);
+        }
+
+        LOG.warn(() -> String.format("Virtual threads are not supported by this runtime, fall back to platform threads on [%s][%s] endpoint", endpoint.getGroupId(), endpoint.getId()));
+
+        return new EndpointWorkerPool(endpoint, metrics);
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads
+     */
+    static boolean isSupported() {
+
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    @Override
+    public <T> void execute(List<T> records, ObjIntConsumer<T> task) {
+
+        var futures = new ArrayList<CompletableFuture<Void>>(records.size());
+
+        for (int index = 0; index < records.size(); index++) {
+            futures.add(submit(records.get(index), index, task));
+        }
+
+        futures.forEach(CompletableFuture::join);
+    }
+
+    @Override
+    public void close() {
+
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                LOG.warn(() -> String.format("Virtual threads of [%s][%s] endpoint did not terminate in time", endpoint.getGroupId(), endpoint.getId()));
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> CompletableFuture<Void> submit(T record, int index, ObjIntConsumer<T> task) {
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+
+            task.accept(record, index);
+
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    task.accept(record, index);
+                } finally {
+                    permits.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+
+            // Executor is closed, run the record on the listener thread
+            permits.release();
+
+            task.accept(record, index);
+
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Virtual threads are not supported by this runtime", e);
+        }
+    }
+
+    private static MethodHandle lookupVirtualThreadPerTaskExecutor() {
+
+        try {
+            var methodHandle = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+
+            // Preview API on Java 19/20 throws unless enabled, so probe it once
+            ((ExecutorService) methodHandle.invokeExact()).shutdown();
+
+            return methodHandle;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package de.microtema.stream.listener.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, columnar responses of a commit.
+ * Ids and states are kept in primitive arrays, each distinct error message is stored once and referenced by index.
+ * <p>
+ * Entries are set by index, so concurrent tasks may fill distinct entries of the same batch.
+ * The batch must be completely filled before it is read.
+ */
+public class CommitBatch {
+
+    private static final ResponseState[] STATES = ResponseState.values();
+
+    private final long[] ids;
+    private final byte[] states;
+
+    /**
+     * Index + 1 into the error messages, zero for no message. Allocated with the first error.
+     */
+    private int[] errors;
+    private List<String> errorMessages = Collections.emptyList();
+    private Map<String, Integer> errorIndexes = Collections.emptyMap();
+
+    /**
+     * Indexes of the records without id, their id is stored as zero. Allocated with the first null id.
+     */
+    private BitSet nullIds;
+
+    public CommitBatch(int size) {
+        this.ids = new long[size];
+        this.states = new byte[size];
+    }
+
+    /**
+     * Adapt list based responses.
+     *
+     * @param responses may not be null
+     * @return CommitBatch
+     */
+    public static CommitBatch of(List<ResponseStatus> responses) {
+
+        var commitBatch = new CommitBatch(responses.size());
+
+        for (int index = 0; index < responses.size(); index++) {
+
+            var response = responses.get(index);
+
+            commitBatch.set(index, response.getId(), response.getState(), response.getErrorMessage());
+        }
+
+        return commitBatch;
+    }
+
+    /**
+     * Merge consecutive batches into one.
+     *
+     * @param commitBatches may not be null or empty
+     * @return CommitBatch
+     */
+    public static CommitBatch merge(List<CommitBatch> commitBatches) {
+
+        if (commitBatches.size() == 1) {
+            return commitBatches.get(0);
+        }
+
+        var size = commitBatches.stream().mapToInt(CommitBatch::size).sum();
+
+        var merged = new CommitBatch(size);
+        var offset = 0;
+
+        for (var commitBatch : commitBatches) {
+
+            System.arraycopy(commitBatch.ids, 0, merged.ids, offset, commitBatch.size());
+            System.arraycopy(commitBatch.states, 0, merged.states, offset, commitBatch.size());
+
+            if (commitBatch.nullIds != null) {
+                for (int index = commitBatch.nullIds.nextSetBit(0); index >= 0; index = commitBatch.nullIds.nextSetBit(index + 1)) {
+                    merged.setNullId(offset + index, true);
+                }
+            }
+
+            if (commitBatch.errors != null) {
+                for (int index = 0; index < commitBatch.size(); index++) {
+                    merged.setErrorMessage(offset + index, commitBatch.getErrorMessage(index));
+                }
+            }
+
+            offset += commitBatch.size();
+        }
+
+        return merged;
+    }
+
+    /**
+     * @param index        of the record within the batch
+     * @param id           of the record, may be null
+     * @param state        may not be null
+     * @param errorMessage may be null
+     */
+    public void set(int index, Long id, ResponseState state, String errorMessage) {
+
+        ids[index] = id == null ? 0 : id;
+        states[index] = (byte) state.ordinal();
+
+        if (id == null || nullIds != null) {
+            setNullId(index, id == null);
+        }
+
+        if (errorMessage != null) {
+            setErrorMessage(index, errorMessage);
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param index of the record within the batch
+     * @return the id, zero if the record has none
+     * @see #hasId(int)
+     */
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index of the record within the batch
+     * @return false if the record was set with a null id
+     */
+    public synchronized boolean hasId(int index) {
+        return nullIds == null || !nullIds.get(index);
+    }
+
+    public ResponseState getState(int index) {
+        return STATES[states[index]];
+    }
+
+    /**
+     * @param index of the record within the batch
+     * @return the error message or null
+     */
+    public synchronized String getErrorMessage(int index) {
+
+        if (errors == null || errors[index] == 0) {
+            return null;
+        }
+
+        return errorMessages.get(errors[index] - 1);
+    }
+
+    /**
+     * @return the distinct error messages of this batch
+     */
+    public synchronized List<String> getErrorMessages() {
+        return Collections.unmodifiableList(errorMessages);
+    }
+
+    /**
+     * @param state may not be null
+     * @return number of records with given state
+     */
+    public int count(ResponseState state) {
+
+        var ordinal = (byte) state.ordinal();
+        var count = 0;
+
+        for (var it : states) {
+            if (it == ordinal) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @param state may not be null
+     * @return ids of the records with given state, in batch order
+     */
+    public long[] getIds(ResponseState state) {
+
+        var ordinal = (byte) state.ordinal();
+        var result = new long[count(state)];
+        var next = 0;
+
+        for (int index = 0; index < ids.length; index++) {
+            if (states[index] == ordinal) {
+                result[next++] = ids[index];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Range encoded ids of the OK records: pairs of first and last id of each run of consecutive ids.
+     * A batch of ids 1-100, all OK, is encoded as {@code [1, 100]}.
+     *
+     * @return first and last id of each range
+     */
+    public long[] getOkRanges() {
+
+        var ids = getIds(ResponseState.OK);
+        var ranges = new long[ids.length * 2];
+        var next = 0;
+
+        for (int index = 0; index < ids.length; index++) {
+
+            if (next > 0 && ranges[next - 1] + 1 == ids[index]) {
+
+                ranges[next - 1] = ids[index];
+
+                continue;
+            }
+
+            ranges[next++] = ids[index];
+            ranges[next++] = ids[index];
+        }
+
+        return Arrays.copyOf(ranges, next);
+    }
+
+    /**
+     * Adapt to list based responses. Only OK and SKIPPED records are successful; a QUARANTINED record is not,
+     * its state marks it as dead letter that should not be delivered again.
+     *
+     * @return List
+     */
+    public List<ResponseStatus> toResponseStatuses() {
+
+        var responses = new ArrayList<ResponseStatus>(size());
+
+        for (int index = 0; index < size(); index++) {
+
+            var response = new ResponseStatus();
+            var state = getState(index);
+
+            response.setId(hasId(index) ? ids[index] : null);
+            response.setState(state);
+            response.setSuccess(state == ResponseState.OK || state == ResponseState.SKIPPED);
+            response.setErrorMessage(getErrorMessage(index));
+
+            responses.add(response);
+        }
+
+        return responses;
+    }
+
+    private synchronized void setNullId(int index, boolean nullId) {
+
+        if (nullIds == null) {
+            nullIds = new BitSet(ids.length);
+        }
+
+        nullIds.set(index, nullId);
+    }
+
+    private synchronized void setErrorMessage(int index, String errorMessage) {
+
+        if (errorMessage == null) {
+            return;
+        }
+
+        if (errors == null) {
+            errors = new int[ids.length];
+            errorMessages = new ArrayList<>();
+            errorIndexes = new HashMap<>();
+        }
+
+        errors[index] = errorIndexes.computeIfAbsent(errorMessage, it -> {
+
+            errorMessages.add(it);
+
+            return errorMessages.size();
+        });
+    }
+}
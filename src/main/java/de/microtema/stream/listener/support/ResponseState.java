@@ -1,5 +1,11 @@
 package de.microtema.stream.listener.support;
 
 public enum ResponseState {
-    OK, SKIPPED, ERROR
+    OK, SKIPPED, ERROR,
+
+    /**
+     * Failed too often, the record should not be delivered again (dead letter).
+     * List based responses report it as not successful.
+     */
+    QUARANTINED
 }
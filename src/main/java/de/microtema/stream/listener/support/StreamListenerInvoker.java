@@ -0,0 +1,65 @@
+package de.microtema.stream.listener.support;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Invoker for a listener method, resolved once per endpoint.
+ * The method handle is bound to the bean and the additional method parameters,
+ * so each invocation only passes the record (or records) without reflection or argument array.
+ */
+public final class StreamListenerInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final MethodHandle methodHandle;
+
+    private StreamListenerInvoker(MethodHandle methodHandle) {
+        this.methodHandle = methodHandle;
+    }
+
+    /**
+     * Create an invoker for given listener method.
+     *
+     * @param bean             may not be null
+     * @param method           may not be null
+     * @param methodParameters may not be null
+     * @return StreamListenerInvoker
+     */
+    public static StreamListenerInvoker of(Object bean, Method method, Object... methodParameters) {
+
+        ReflectionUtils.makeAccessible(method);
+
+        try {
+            var methodHandle = MethodHandles.lookup().unreflect(method).bindTo(bean);
+
+            if (methodParameters.length > 0) {
+                methodHandle = MethodHandles.insertArguments(methodHandle, 1, methodParameters);
+            }
+
+            return new StreamListenerInvoker(methodHandle.asType(INVOKER_TYPE));
+        } catch (IllegalAccessException ex) {
+            throw new UndeclaredThrowableException(ex);
+        }
+    }
+
+    /**
+     * Invoke the listener method. Runtime exceptions and errors are propagated as is,
+     * checked exceptions are wrapped within {@link UndeclaredThrowableException}.
+     *
+     * @param recordOrRecords may not be null
+     */
+    public void invoke(Object recordOrRecords) {
+
+        try {
+            methodHandle.invokeExact(recordOrRecords);
+        } catch (Throwable ex) {
+            ReflectionUtils.rethrowRuntimeException(ex);
+        }
+    }
+}
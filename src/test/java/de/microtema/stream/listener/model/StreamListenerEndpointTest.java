@@ -0,0 +1,29 @@
+package de.microtema.stream.listener.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamListenerEndpointTest {
+
+    StreamListenerEndpoint<EventIdAware> sut = new StreamListenerEndpoint<>();
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void setCron_will_set_max_delay_to_cron_interval() {
+
+        sut.setCron("0 */1 * ? * *");
+
+        assertEquals("0 */1 * ? * *", sut.getCron());
+        assertEquals(60_000, sut.getMaxDelay());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void setCron_will_keep_max_delay_without_cron() {
+
+        sut.setCron(null);
+
+        assertEquals(30_000, sut.getMaxDelay());
+    }
+}
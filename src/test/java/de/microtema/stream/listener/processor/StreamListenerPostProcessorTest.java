@@ -5,10 +5,13 @@ import de.microtema.model.builder.util.FieldInjectionUtil;
 import de.microtema.model.builder.util.FieldUtil;
 import de.microtema.stream.listener.annotation.StreamListener;
 import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
 import de.microtema.stream.listener.publisher.StreamEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
@@ -18,9 +21,12 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.BeanExpressionContext;
 import org.springframework.beans.factory.config.BeanExpressionResolver;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +47,9 @@ class StreamListenerPostProcessorTest {
     @Mock
     BeanExpressionResolver beanExpressionResolver;
 
+    @Captor
+    ArgumentCaptor<List<StreamListenerEndpoint>> endpoints;
+
     @Model
     EventListener bean;
 
@@ -76,7 +85,7 @@ class StreamListenerPostProcessorTest {
     @Test
     void postProcessAfterInitialization() {
 
-        doNothing().when(streamEventPublisher).registerStreamListenerEndpoint(any());
+        doNothing().when(streamEventPublisher).registerStreamListenerEndpoints(any());
 
         when(beanExpressionResolver.evaluate(any(), any())).then(it -> {
 
@@ -95,6 +104,78 @@ class StreamListenerPostProcessorTest {
         assertEquals(bean, answer);
     }
 
+    @Test
+    void postProcessAfterInitialization_without_topics() {
+
+        when(beanExpressionResolver.evaluate(any(), any())).then(it -> it.getArgument(0));
+
+        sut.postProcessAfterInitialization(new NoTopicListener(), beanName);
+
+        verify(streamEventPublisher).registerStreamListenerEndpoints(endpoints.capture());
+
+        assertEquals(1, endpoints.getValue().size());
+        assertNull(endpoints.getValue().get(0).getTopic());
+    }
+
+    @Test
+    void postProcessAfterInitialization_with_topics() {
+
+        when(beanExpressionResolver.evaluate(any(), any())).then(it -> it.getArgument(0));
+
+        sut.postProcessAfterInitialization(new MultiTopicListener(), beanName);
+
+        verify(streamEventPublisher).registerStreamListenerEndpoints(endpoints.capture());
+
+        var answer = endpoints.getValue();
+
+        assertEquals(2, answer.size());
+        assertEquals("invoices-invoice_created", answer.get(0).getId());
+        assertEquals("invoice_created", answer.get(0).getTopic());
+        assertEquals("invoices-invoice_updated", answer.get(1).getId());
+        assertEquals("invoice_updated", answer.get(1).getTopic());
+        assertEquals(answer.get(0).getGroupId(), answer.get(1).getGroupId());
+        assertSame(answer.get(0).getInvoker(), answer.get(1).getInvoker());
+    }
+
+    @Test
+    void postProcessAfterInitialization_with_queue_capacity() {
+
+        when(beanExpressionResolver.evaluate(any(), any())).then(it -> it.getArgument(0));
+
+        sut.postProcessAfterInitialization(new ConcurrentListener(), beanName);
+
+        verify(streamEventPublisher).registerStreamListenerEndpoints(endpoints.capture());
+
+        var answer = endpoints.getValue().get(0);
+
+        assertEquals(4, answer.getConcurrency());
+        assertEquals(16, answer.getQueueCapacity());
+    }
+
+    static public class NoTopicListener {
+
+        @StreamListener
+        public void on(EventIdAware event) {
+
+        }
+    }
+
+    static public class MultiTopicListener {
+
+        @StreamListener(id = "invoices", topics = {"invoice_created", "invoice_updated"})
+        public void on(EventIdAware event) {
+
+        }
+    }
+
+    static public class ConcurrentListener {
+
+        @StreamListener(topics = "invoice_created", concurrency = "4", queueCapacity = "16")
+        public void on(EventIdAware event) {
+
+        }
+    }
+
     static public class EventListener {
 
         @StreamListener(topics = "dwh_invoice_updated")
@@ -0,0 +1,185 @@
+package de.microtema.stream.listener.provider.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.config.DataProviderConfiguration;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpStreamListenerDataProviderTest {
+
+    HttpStreamListenerDataProvider<Event> sut;
+
+    HttpServer server;
+
+    BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+
+    StreamListenerEndpoint<Event> endpoint = new StreamListenerEndpoint<>();
+
+    String events = "[{\"id\":1,\"eventId\":\"a\"},{\"id\":2,\"eventId\":\"b\"},{\"id\":3,\"eventId\":\"c\"}]";
+
+    int status = 200;
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        var configuration = new DataProviderConfiguration();
+        configuration.setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/");
+
+        sut = new HttpStreamListenerDataProvider<>(configuration, new ObjectMapper());
+
+        endpoint.setId("endpoint");
+        endpoint.setGroupId("group");
+        endpoint.setTopic("topic");
+        endpoint.setBatchSize(3);
+        endpoint.setRecordType(Event.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        server.stop(0);
+    }
+
+    @Test
+    void receive() throws Exception {
+
+        var answer = sut.receive(endpoint);
+
+        assertEquals(List.of(new Event(1L, "a"), new Event(2L, "b"), new Event(3L, "c")), answer);
+        assertEquals("GET /topic/events?endpointId=endpoint&groupId=group&limit=3&lockDuration=60000 gzip", requests.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void open() {
+
+        var records = new ArrayList<Event>();
+
+        try (var answer = sut.open(endpoint)) {
+
+            assertTrue(answer.hasNext());
+
+            answer.forEachRemaining(records::add);
+        }
+
+        assertEquals(3, records.size());
+    }
+
+    @Test
+    void receive_empty() {
+
+        status = 204;
+
+        assertTrue(sut.receive(endpoint).isEmpty());
+    }
+
+    @Test
+    void receive_will_throw() {
+
+        status = 500;
+
+        assertThrows(IllegalStateException.class, () -> sut.receive(endpoint));
+    }
+
+    @Test
+    void commit() throws Exception {
+
+        var commitBatch = new CommitBatch(5);
+
+        commitBatch.set(0, 1L, ResponseState.OK, null);
+        commitBatch.set(1, 2L, ResponseState.OK, null);
+        commitBatch.set(2, 3L, ResponseState.SKIPPED, null);
+        commitBatch.set(3, 4L, ResponseState.ERROR, "boom");
+        commitBatch.set(4, 5L, ResponseState.QUARANTINED, "boom");
+
+        sut.commit(endpoint, commitBatch);
+
+        assertEquals("POST /topic/events/commit?endpointId=endpoint&groupId=group {\"ok\":[1,2],\"skipped\":[3],\"quarantined\":[5],\"errors\":[{\"message\":\"boom\",\"ids\":[4]}]}", requests.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void commit_will_throw_on_error_status() {
+
+        status = 500;
+
+        assertThrows(IllegalStateException.class, () -> sut.commit(endpoint, new CommitBatch(0)));
+    }
+
+    @Test
+    void extendLease() throws Exception {
+
+        sut.extendLease(endpoint, new long[]{1, 2});
+
+        assertEquals("POST /topic/events/lease?endpointId=endpoint&groupId=group&lockDuration=60000 [1,2]", requests.poll(1, TimeUnit.SECONDS));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+
+        try (exchange) {
+
+            var request = exchange.getRequestMethod() + " " + exchange.getRequestURI();
+
+            if ("POST".equals(exchange.getRequestMethod())) {
+                requests.add(request + " " + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                exchange.sendResponseHeaders(status == 200 ? 204 : status, -1);
+                return;
+            }
+
+            requests.add(request + " " + exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+
+            var body = new ByteArrayOutputStream();
+
+            try (var gzip = new GZIPOutputStream(body)) {
+                gzip.write(events.getBytes(StandardCharsets.UTF_8));
+            }
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, body.size());
+            exchange.getResponseBody().write(body.toByteArray());
+        }
+    }
+
+    record Event(Long id, String eventId) implements EventIdAware {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getEventId() {
+            return eventId;
+        }
+    }
+}
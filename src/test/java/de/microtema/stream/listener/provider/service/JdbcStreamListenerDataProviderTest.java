@@ -0,0 +1,193 @@
+package de.microtema.stream.listener.provider.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.config.DataProviderConfiguration;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JdbcStreamListenerDataProviderTest {
+
+    JdbcStreamListenerDataProvider<Event> sut;
+
+    JdbcDataSource dataSource = new JdbcDataSource();
+
+    StreamListenerEndpoint<Event> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        dataSource.setURL("jdbc:h2:mem:events;DB_CLOSE_DELAY=-1");
+
+        execute("CREATE TABLE events (id BIGINT PRIMARY KEY, event_id VARCHAR(64), status VARCHAR(16), error_message VARCHAR(4000), locked_by VARCHAR(64), locked_until TIMESTAMP)");
+
+        for (int id = 1; id <= 100; id++) {
+            execute("INSERT INTO events (id, event_id) VALUES (" + id + ", 'event-" + id + "')");
+        }
+
+        sut = new JdbcStreamListenerDataProvider<>(dataSource, new DataProviderConfiguration(), JdbcStreamListenerDataProvider.ClaimStrategy.LEASE,
+                it -> new Event(it.getLong("id"), it.getString("event_id")));
+
+        endpoint.setId("endpoint");
+        endpoint.setTopic("events");
+        endpoint.setBatchSize(10);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+
+        execute("DROP TABLE events");
+    }
+
+    @Test
+    void receive() {
+
+        var first = sut.receive(endpoint);
+        var second = sut.receive(endpoint);
+
+        assertEquals(10, first.size());
+        assertEquals(new Event(1L, "event-1"), first.get(0));
+        assertEquals(11L, second.get(0).getId());
+    }
+
+    @Test
+    void receive_concurrently() throws Exception {
+
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<List<Long>>>();
+
+        for (int instance = 0; instance < 4; instance++) {
+
+            futures.add(executor.submit(() -> {
+
+                var ids = new ArrayList<Long>();
+                List<Event> records;
+
+                while (!(records = sut.receive(endpoint)).isEmpty()) {
+                    records.forEach(it -> ids.add(it.getId()));
+                }
+
+                return ids;
+            }));
+        }
+
+        var ids = new ArrayList<Long>();
+
+        for (var future : futures) {
+            ids.addAll(future.get());
+        }
+
+        executor.shutdown();
+
+        assertEquals(100, ids.size());
+        assertEquals(100, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void commit() throws Exception {
+
+        var records = sut.receive(endpoint);
+        var commitBatch = new CommitBatch(records.size());
+
+        for (int index = 0; index < records.size(); index++) {
+            commitBatch.set(index, records.get(index).getId(), index == 3 ? ResponseState.ERROR : ResponseState.OK, index == 3 ? "boom" : null);
+        }
+
+        sut.commit(endpoint, commitBatch);
+
+        assertEquals(9, count("status = 'OK' AND locked_by IS NULL"));
+        assertEquals(1, count("id = 4 AND status = 'ERROR' AND error_message = 'boom' AND locked_by IS NULL AND locked_until IS NOT NULL"));
+
+        // The failed record keeps a retry lease
+        assertEquals(11L, sut.receive(endpoint).get(0).getId());
+
+        execute("UPDATE events SET locked_until = TIMESTAMP '2000-01-01 00:00:00' WHERE id = 4");
+
+        // The failed record is delivered again
+        assertEquals(4L, sut.receive(endpoint).get(0).getId());
+    }
+
+    @Test
+    void commit_will_not_update_records_claimed_again() throws Exception {
+
+        var records = sut.receive(endpoint);
+        var commitBatch = new CommitBatch(records.size());
+
+        for (int index = 0; index < records.size(); index++) {
+            commitBatch.set(index, records.get(index).getId(), index == 3 ? ResponseState.ERROR : ResponseState.OK, null);
+        }
+
+        // The lease expired and the records 3 and 4 were claimed by another instance
+        execute("UPDATE events SET locked_by = 'other' WHERE id IN (3, 4)");
+
+        sut.commit(endpoint, commitBatch);
+
+        assertEquals(8, count("status = 'OK' AND locked_by IS NULL"));
+        assertEquals(2, count("status IS NULL AND locked_by = 'other'"));
+    }
+
+    @Test
+    void extendLease() throws Exception {
+
+        sut.receive(endpoint);
+
+        execute("UPDATE events SET locked_until = TIMESTAMP '2000-01-01 00:00:00' WHERE id <= 10");
+
+        sut.extendLease(endpoint, new long[]{1, 2});
+
+        assertEquals(2, count("locked_until > TIMESTAMP '2000-01-01 00:00:00'"));
+    }
+
+    @Test
+    void receive_will_throw_on_invalid_table_name() {
+
+        endpoint.setTopic("events; DROP TABLE events");
+
+        assertThrows(IllegalArgumentException.class, () -> sut.receive(endpoint));
+    }
+
+    private void execute(String sql) throws SQLException {
+
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private int count(String condition) throws SQLException {
+
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement();
+             var resultSet = statement.executeQuery("SELECT COUNT(*) FROM events WHERE " + condition)) {
+
+            resultSet.next();
+
+            return resultSet.getInt(1);
+        }
+    }
+
+    record Event(Long id, String eventId) implements EventIdAware {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getEventId() {
+            return eventId;
+        }
+    }
+}
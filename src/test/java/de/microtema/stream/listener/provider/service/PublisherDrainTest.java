@@ -0,0 +1,94 @@
+package de.microtema.stream.listener.provider.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublisherDrainTest {
+
+    AtomicBoolean cancelled = new AtomicBoolean();
+
+    @Test
+    void drain_will_receive_up_to_limit() {
+
+        var answer = new PublisherDrain<Long>(10).drain(publisher(25), 5000);
+
+        assertEquals(LongStream.range(0, 10).boxed().collect(Collectors.toList()), answer);
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    void drain_will_return_on_complete() {
+
+        var start = System.currentTimeMillis();
+
+        var answer = new PublisherDrain<Long>(10).drain(publisher(3), 5000);
+
+        assertEquals(List.of(0L, 1L, 2L), answer);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    void drain_will_return_received_records_on_timeout() {
+
+        Flow.Publisher<Long> publisher = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+
+            @Override
+            public void request(long n) {
+                subscriber.onNext(0L);
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+
+        assertEquals(List.of(0L), new PublisherDrain<Long>(10).drain(publisher, 50));
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    void drain_will_throw_on_error() {
+
+        Flow.Publisher<Long> publisher = subscriber -> subscriber.onError(new IllegalArgumentException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> new PublisherDrain<Long>(10).drain(publisher, 5000));
+    }
+
+    /**
+     * Emit the requested records synchronously and complete after the last one.
+     */
+    Flow.Publisher<Long> publisher(int size) {
+
+        return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+
+            long next;
+
+            @Override
+            public void request(long n) {
+
+                for (long index = 0; index < n && next < size; index++) {
+                    subscriber.onNext(next++);
+                }
+
+                if (next == size) {
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+    }
+}
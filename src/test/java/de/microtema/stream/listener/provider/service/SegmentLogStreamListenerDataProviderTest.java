@@ -0,0 +1,193 @@
+package de.microtema.stream.listener.provider.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentLogStreamListenerDataProviderTest {
+
+    SegmentLogStreamListenerDataProvider<Event> sut;
+
+    @TempDir
+    Path directory;
+
+    StreamListenerEndpoint<Event> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        sut = new SegmentLogStreamListenerDataProvider<>(directory, new EventCodec(), 64);
+
+        endpoint.setId("endpoint");
+        endpoint.setGroupId("group");
+        endpoint.setTopic("events");
+        endpoint.setBatchSize(4);
+    }
+
+    @Test
+    void receive() {
+
+        append(0, 10);
+
+        var answer = sut.receive(endpoint);
+
+        assertEquals(List.of(new Event(0L, "event-0"), new Event(1L, "event-1"), new Event(2L, "event-2"), new Event(3L, "event-3")), answer);
+        assertEquals(List.of(4L, 5L, 6L, 7L), getIds(sut.receive(endpoint)));
+        assertEquals(List.of(8L, 9L), getIds(sut.receive(endpoint)));
+        assertTrue(sut.receive(endpoint).isEmpty());
+    }
+
+    @Test
+    void receive_across_segments() throws Exception {
+
+        append(0, 10);
+
+        var answer = sut.receive(endpoint);
+
+        append(10, 20);
+
+        endpoint.setBatchSize(100);
+
+        assertEquals(4, answer.size());
+        assertEquals(16, sut.receive(endpoint).size());
+        assertTrue(Files.list(directory.resolve("events")).filter(it -> it.toString().endsWith(".log")).count() > 1);
+    }
+
+    @Test
+    void receive_from_committed_offset_after_restart() {
+
+        append(0, 10);
+
+        commit(sut.receive(endpoint), -1);
+
+        sut.receive(endpoint);
+        sut.close();
+
+        sut = new SegmentLogStreamListenerDataProvider<>(directory, new EventCodec(), 64);
+
+        assertEquals(List.of(4L, 5L, 6L, 7L), getIds(sut.receive(endpoint)));
+        assertEquals(10L, sut.append("events", new Event(null, "event-10")));
+    }
+
+    @Test
+    void commit_will_redeliver_failed_record() {
+
+        append(0, 10);
+
+        sut.receive(endpoint);
+
+        var records = sut.receive(endpoint);
+
+        commit(records, 5L);
+
+        assertEquals(List.of(5L, 6L, 7L, 8L), getIds(sut.receive(endpoint)));
+    }
+
+    @Test
+    void commit_will_not_advance_past_unresolved_failed_record() {
+
+        append(0, 20);
+
+        commit(5, 5, ResponseState.ERROR);
+        commit(10, 19, ResponseState.OK);
+
+        sut.close();
+
+        sut = new SegmentLogStreamListenerDataProvider<>(directory, new EventCodec(), 64);
+
+        assertEquals(List.of(5L, 6L, 7L, 8L), getIds(sut.receive(endpoint)));
+
+        commit(5, 8, ResponseState.OK);
+        sut.close();
+
+        sut = new SegmentLogStreamListenerDataProvider<>(directory, new EventCodec(), 64);
+
+        assertEquals(List.of(9L, 10L, 11L, 12L), getIds(sut.receive(endpoint)));
+    }
+
+    @Test
+    void receive_will_throw_on_invalid_topic() {
+
+        endpoint.setTopic("../events");
+
+        assertThrows(IllegalArgumentException.class, () -> sut.receive(endpoint));
+    }
+
+    private void append(int from, int to) {
+
+        for (int id = from; id < to; id++) {
+            sut.append("events", new Event(null, "event-" + id));
+        }
+    }
+
+    private void commit(List<Event> records, long errorId) {
+
+        var commitBatch = new CommitBatch(records.size());
+
+        for (int index = 0; index < records.size(); index++) {
+
+            var id = records.get(index).getId();
+
+            commitBatch.set(index, id, id == errorId ? ResponseState.ERROR : ResponseState.OK, null);
+        }
+
+        sut.commit(endpoint, commitBatch);
+    }
+
+    private void commit(long first, long last, ResponseState state) {
+
+        var commitBatch = new CommitBatch((int) (last - first + 1));
+
+        for (var id = first; id <= last; id++) {
+            commitBatch.set((int) (id - first), id, state, null);
+        }
+
+        sut.commit(endpoint, commitBatch);
+    }
+
+    private static List<Long> getIds(List<Event> records) {
+
+        return records.stream().map(Event::getId).collect(Collectors.toList());
+    }
+
+    record Event(Long id, String eventId) implements EventIdAware {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getEventId() {
+            return eventId;
+        }
+    }
+
+    static class EventCodec implements RecordCodec<Event> {
+
+        @Override
+        public void encode(Event record, ByteBuffer buffer) {
+            buffer.put(record.eventId().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Event decode(long id, ByteBuffer buffer) {
+            return new Event(id, StandardCharsets.UTF_8.decode(buffer).toString());
+        }
+    }
+}
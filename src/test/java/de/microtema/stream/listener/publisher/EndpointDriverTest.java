@@ -0,0 +1,135 @@
+package de.microtema.stream.listener.publisher;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.service.StreamListenerExecutionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EndpointDriverTest {
+
+    EndpointDriver sut;
+
+    @Mock
+    StreamListenerScheduler streamListenerScheduler;
+
+    @Mock
+    StreamListenerExecutionService streamListenerExecutionService;
+
+    StreamListenerEndpoint busy = endpoint("busy");
+
+    StreamListenerEndpoint other = endpoint("other");
+
+    StreamListenerEndpoint idle = endpoint("idle");
+
+    List<String> polls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+
+        when(streamListenerExecutionService.executeEndpointMethod(any())).then(it -> {
+
+            StreamListenerEndpoint endpoint = it.getArgument(0);
+
+            polls.add(endpoint.getId());
+
+            return endpoint == idle ? 0 : endpoint.getBatchSize();
+        });
+
+        sut = new EndpointDriver(List.of(busy, other, idle), streamListenerScheduler, streamListenerExecutionService);
+
+        sut.start(0);
+    }
+
+    @Test
+    void poll_will_round_robin_busy_endpoints_and_back_off_idle_ones() {
+
+        for (int i = 0; i < 9; i++) {
+            sut.poll();
+        }
+
+        assertEquals(List.of("busy", "other", "idle", "busy", "other", "busy", "other", "busy", "other"), polls);
+    }
+
+    @Test
+    void poll_will_not_grow_stack_over_many_empty_polls() throws Exception {
+
+        idle.setDelay(1);
+        idle.setMaxDelay(1);
+
+        Set<Integer> stackDepths = ConcurrentHashMap.newKeySet();
+        var polled = new CountDownLatch(200);
+
+        var scheduler = new StreamListenerScheduler(1, StreamListenerMetrics.NOOP) {
+
+            @Override
+            public void schedule(StreamListenerEndpoint<?> endpoint, Runnable task, long delay) {
+
+                super.schedule(endpoint, () -> {
+
+                    stackDepths.add(Thread.currentThread().getStackTrace().length);
+                    polled.countDown();
+
+                    task.run();
+                }, delay);
+            }
+        };
+
+        sut = new EndpointDriver(List.of(idle), scheduler, streamListenerExecutionService);
+
+        try {
+            sut.start(0);
+
+            assertTrue(polled.await(10, TimeUnit.SECONDS));
+        } finally {
+            sut.stop();
+            scheduler.shutdown();
+        }
+
+        // Each poll runs on a fresh scheduler task instead of calling the next one
+        assertEquals(1, stackDepths.size());
+    }
+
+    @Test
+    void poll_after_stop_will_not_reschedule() {
+
+        sut.poll();
+        sut.stop();
+        sut.poll();
+
+        assertEquals(List.of("busy"), polls);
+
+        // Once by start, once by the first poll
+        verify(streamListenerScheduler, times(2)).schedule(any(), any(), anyLong());
+    }
+
+    static StreamListenerEndpoint endpoint(String id) {
+
+        var endpoint = new StreamListenerEndpoint<>();
+
+        endpoint.setId(id);
+        endpoint.setDelay(60_000);
+        endpoint.setMaxDelay(60_000);
+
+        return endpoint;
+    }
+}
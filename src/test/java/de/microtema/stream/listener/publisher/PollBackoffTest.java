@@ -0,0 +1,68 @@
+package de.microtema.stream.listener.publisher;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollBackoffTest {
+
+    PollBackoff sut;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setDelay(100);
+        endpoint.setMaxDelay(1000);
+
+        sut = new PollBackoff(endpoint);
+    }
+
+    @Test
+    void nextDelay_on_full_batch() {
+
+        assertEquals(0, sut.nextDelay(10, 10));
+    }
+
+    @Test
+    void nextDelay_on_partial_batch() {
+
+        assertEquals(100, sut.nextDelay(5, 10));
+    }
+
+    @Test
+    void nextDelay_on_empty_batches() {
+
+        var first = sut.nextDelay(0, 10);
+        var second = sut.nextDelay(0, 10);
+        var third = sut.nextDelay(0, 10);
+        var fourth = sut.nextDelay(0, 10);
+
+        assertTrue(first >= 50 && first <= 100);
+        assertTrue(second >= 100 && second <= 200);
+        assertTrue(third >= 200 && third <= 400);
+        assertTrue(fourth >= 400 && fourth <= 800);
+
+        for (int i = 0; i < 100; i++) {
+            var delay = sut.nextDelay(0, 10);
+            assertTrue(delay >= 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    void nextDelay_will_reset_backoff_on_records() {
+
+        sut.nextDelay(0, 10);
+        sut.nextDelay(0, 10);
+
+        sut.nextDelay(5, 10);
+
+        var delay = sut.nextDelay(0, 10);
+
+        assertTrue(delay >= 50 && delay <= 100);
+    }
+}
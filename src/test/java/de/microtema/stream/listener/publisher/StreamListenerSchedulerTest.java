@@ -0,0 +1,71 @@
+package de.microtema.stream.listener.publisher;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamListenerSchedulerTest {
+
+    StreamListenerScheduler sut = new StreamListenerScheduler(1, StreamListenerMetrics.NOOP);
+
+    CountDownLatch polls = new CountDownLatch(200);
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+    }
+
+    @Test
+    void schedule_will_share_threads_by_weight() throws Exception {
+
+        var light = new AtomicInteger();
+        var heavy = new AtomicInteger();
+
+        poll(endpoint("light", 1), light);
+        poll(endpoint("heavy", 3), heavy);
+
+        assertTrue(polls.await(10, TimeUnit.SECONDS));
+
+        assertTrue(heavy.get() > 2 * light.get(), () -> "Heavy polls " + heavy + ", light polls " + light);
+    }
+
+    /**
+     * Busy poll, rescheduling itself immediately like a driver on full batches.
+     */
+    void poll(StreamListenerEndpoint endpoint, AtomicInteger counter) {
+
+        sut.schedule(endpoint, () -> {
+
+            counter.incrementAndGet();
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            polls.countDown();
+
+            if (polls.getCount() > 0) {
+                poll(endpoint, counter);
+            }
+        }, 0);
+    }
+
+    static StreamListenerEndpoint endpoint(String id, int weight) {
+
+        var endpoint = new StreamListenerEndpoint<>();
+
+        endpoint.setId(id);
+        endpoint.setWeight(weight);
+
+        return endpoint;
+    }
+}
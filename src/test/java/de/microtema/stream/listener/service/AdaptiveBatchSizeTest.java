@@ -0,0 +1,94 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBatchSizeTest {
+
+    AdaptiveBatchSize sut;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setMinBatchSize(10);
+        endpoint.setMaxBatchSize(1000);
+        endpoint.setBatchSize(100);
+        endpoint.setTargetCycleTime(1000);
+
+        sut = new AdaptiveBatchSize(endpoint);
+    }
+
+    @Test
+    void isEnabled_only_within_a_range() {
+
+        assertTrue(AdaptiveBatchSize.isEnabled(endpoint));
+
+        endpoint.setMaxBatchSize(10);
+
+        assertFalse(AdaptiveBatchSize.isEnabled(endpoint));
+    }
+
+    @Test
+    void update_will_grow_on_full_and_fast_batch() {
+
+        sut.update(100, 100, 0, 100);
+
+        assertEquals(151, endpoint.getBatchSize());
+    }
+
+    @Test
+    void update_will_not_grow_beyond_target_cycle_time() {
+
+        sut.update(100, 100, 0, 800);
+
+        assertEquals(100, endpoint.getBatchSize());
+    }
+
+    @Test
+    void update_will_keep_on_partial_batch() {
+
+        sut.update(100, 42, 0, 100);
+
+        assertEquals(100, endpoint.getBatchSize());
+    }
+
+    @Test
+    void update_will_shrink_on_slow_batch() {
+
+        sut.update(100, 100, 0, 1500);
+
+        assertEquals(50, endpoint.getBatchSize());
+    }
+
+    @Test
+    void update_will_shrink_on_error_spike() {
+
+        sut.update(100, 100, 50, 100);
+
+        assertEquals(50, endpoint.getBatchSize());
+    }
+
+    @Test
+    void update_will_stay_within_bounds() {
+
+        endpoint.setBatchSize(900);
+
+        sut.update(900, 900, 0, 10);
+
+        assertEquals(1000, endpoint.getBatchSize());
+
+        endpoint.setBatchSize(12);
+
+        sut.update(12, 12, 12, 10);
+
+        assertEquals(10, endpoint.getBatchSize());
+    }
+}
@@ -0,0 +1,93 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.CircuitState;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    CircuitBreaker sut;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setFailureRateThreshold(50);
+        endpoint.setCircuitOpenTime(0);
+
+        sut = new CircuitBreaker(endpoint, StreamListenerMetrics.NOOP);
+    }
+
+    @Test
+    void record_will_keep_closed_below_threshold() {
+
+        sut.record(100, 49);
+
+        assertEquals(CircuitState.CLOSED, sut.getState());
+        assertEquals(100, sut.getBatchSize(100));
+    }
+
+    @Test
+    void record_will_keep_closed_below_min_records() {
+
+        sut.record(CircuitBreaker.MIN_RECORDS - 1, CircuitBreaker.MIN_RECORDS - 1);
+
+        assertEquals(CircuitState.CLOSED, sut.getState());
+    }
+
+    @Test
+    void record_will_open_above_threshold() {
+
+        endpoint.setCircuitOpenTime(60000);
+
+        sut.record(10, 5);
+        sut.record(10, 5);
+
+        assertEquals(CircuitState.OPEN, sut.getState());
+        assertFalse(sut.allowReceive());
+    }
+
+    @Test
+    void allowReceive_will_probe_after_open_time() {
+
+        sut.record(100, 100);
+
+        assertTrue(sut.allowReceive());
+        assertEquals(CircuitState.HALF_OPEN, sut.getState());
+        assertEquals(CircuitBreaker.HALF_OPEN_BATCH_SIZE, sut.getBatchSize(100));
+    }
+
+    @Test
+    void record_will_close_on_successful_probe() {
+
+        sut.record(100, 100);
+        sut.allowReceive();
+
+        sut.record(0, 0);
+
+        assertEquals(CircuitState.HALF_OPEN, sut.getState());
+
+        sut.record(10, 0);
+
+        assertEquals(CircuitState.CLOSED, sut.getState());
+    }
+
+    @Test
+    void record_will_open_on_failed_probe() {
+
+        sut.record(100, 100);
+        sut.allowReceive();
+
+        sut.record(10, 10);
+
+        assertEquals(CircuitState.OPEN, sut.getState());
+    }
+}
@@ -0,0 +1,132 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
+import de.microtema.stream.listener.support.CommitBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CommitStageTest {
+
+    CommitStage<EventIdAware> sut;
+
+    @Mock
+    StreamListenerDataProvider<EventIdAware> dataProvider;
+
+    @Captor
+    ArgumentCaptor<CommitBatch> commitBatchCaptor;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setId("endpoint");
+        endpoint.setDataProvider(dataProvider);
+        endpoint.setCommitSize(10);
+        endpoint.setCommitDelay(1000);
+
+        sut = new CommitStage<>(endpoint, StreamListenerMetrics.NOOP);
+    }
+
+    @Test
+    void commit_will_merge_consecutive_batches() {
+
+        sut.commit(new CommitBatch(2));
+        sut.commit(new CommitBatch(2));
+        sut.commit(new CommitBatch(2));
+
+        sut.close();
+
+        verify(dataProvider).commit(eq(endpoint), commitBatchCaptor.capture());
+
+        assertEquals(6, commitBatchCaptor.getValue().size());
+    }
+
+    @Test
+    void commit_after_close_will_commit_on_caller_thread() {
+
+        sut.close();
+
+        sut.commit(new CommitBatch(1));
+
+        verify(dataProvider, times(1)).commit(eq(endpoint), commitBatchCaptor.capture());
+
+        assertEquals(1, commitBatchCaptor.getValue().size());
+    }
+
+    @Test
+    void commit_will_throw_after_failed_commit() throws Exception {
+
+        var failing = new CountDownLatch(1);
+        var committed = new CountDownLatch(1);
+
+        sut.close();
+        sut = new CommitStage<>(endpoint, StreamListenerMetrics.NOOP, it -> committed.countDown());
+
+        doAnswer(it -> {
+            failing.await();
+            throw new IllegalStateException("unavailable");
+        }).when(dataProvider).commit(eq(endpoint), any(CommitBatch.class));
+
+        sut.commit(new CommitBatch(10));
+
+        failing.countDown();
+
+        assertTrue(committed.await(1, TimeUnit.SECONDS));
+
+        var answer = assertThrows(IllegalStateException.class, () -> sut.commit(new CommitBatch(1)));
+
+        assertEquals("unavailable", answer.getCause().getMessage());
+    }
+
+    @Test
+    void commit_concurrent_to_close_will_not_lose_responses() throws Exception {
+
+        var responses = new AtomicInteger();
+
+        doAnswer(it -> responses.addAndGet(it.<CommitBatch>getArgument(1).size())).when(dataProvider).commit(eq(endpoint), any(CommitBatch.class));
+
+        var threads = new Thread[4];
+
+        for (int index = 0; index < threads.length; index++) {
+
+            threads[index] = new Thread(() -> {
+                for (int count = 0; count < 100; count++) {
+                    sut.commit(new CommitBatch(1));
+                }
+            });
+
+            threads[index].start();
+        }
+
+        sut.close();
+
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400, responses.get());
+    }
+}
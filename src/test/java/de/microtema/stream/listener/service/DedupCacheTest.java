@@ -0,0 +1,75 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DedupCacheTest {
+
+    DedupCache sut;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setDedupSize(100);
+
+        sut = new DedupCache(endpoint);
+    }
+
+    @Test
+    void contains_processed_event() {
+
+        sut.add("event");
+
+        assertTrue(sut.contains("event"));
+        assertFalse(sut.contains("other"));
+        assertFalse(sut.contains(null));
+    }
+
+    @Test
+    void add_will_evict_oldest_events() {
+
+        for (int i = 0; i <= 100; i++) {
+            sut.add("event-" + i);
+        }
+
+        assertFalse(sut.contains("event-0"));
+        assertTrue(sut.contains("event-1"));
+        assertTrue(sut.contains("event-100"));
+    }
+
+    @Test
+    void contains_will_expire_events() {
+
+        endpoint.setDedupTtl(-1);
+
+        sut.add("event");
+
+        assertFalse(sut.contains("event"));
+    }
+
+    @Test
+    void contains_with_filter() {
+
+        endpoint.setDedupFilter(true);
+
+        sut = new DedupCache(endpoint);
+
+        // Enough events to rebuild the filter a few times
+        for (int i = 0; i < 1000; i++) {
+            sut.add("event-" + i);
+        }
+
+        for (int i = 900; i < 1000; i++) {
+            assertTrue(sut.contains("event-" + i));
+        }
+
+        assertFalse(sut.contains("event-0"));
+    }
+}
@@ -0,0 +1,121 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndpointWorkerPoolTest {
+
+    EndpointWorkerPool sut;
+
+    StreamListenerEndpoint<?> endpoint = new StreamListenerEndpoint<>();
+
+    AtomicLong completed = new AtomicLong(-1);
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setId("endpoint");
+        endpoint.setConcurrency(1);
+        endpoint.setQueueCapacity(1);
+
+        sut = new EndpointWorkerPool(endpoint, new StreamListenerMetrics() {
+
+            @Override
+            public void workerPool(StreamListenerEndpoint<?> endpoint, int active, int queued, long count) {
+                completed.set(count);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void execute_will_run_record_on_caller_thread_if_queue_is_full() {
+
+        var caller = Thread.currentThread();
+        var released = new CountDownLatch(1);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        sut.execute(List.of(0, 1, 2), (it, index) -> {
+
+            threads.add(Thread.currentThread());
+
+            if (Thread.currentThread() == caller) {
+                // One record runs on the worker, one is queued, the third runs here
+                released.countDown();
+                return;
+            }
+
+            try {
+                assertTrue(released.await(1, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals(2, threads.size());
+        assertTrue(threads.contains(caller));
+        // The worker counts a record as completed only after its future is done
+        assertTrue(completed.get() >= 1);
+    }
+
+    @Test
+    void close_will_wait_for_running_records() {
+
+        var started = new CountDownLatch(1);
+        var finished = new CountDownLatch(1);
+
+        var thread = new Thread(() -> sut.execute(List.of(0), (it, index) -> {
+
+            started.countDown();
+
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            finished.countDown();
+        }));
+
+        thread.start();
+
+        try {
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        sut.close();
+
+        assertEquals(0, finished.getCount());
+    }
+
+    @Test
+    void execute_after_close_will_run_on_caller_thread() {
+
+        sut.close();
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        sut.execute(List.of(0, 1, 2), (it, index) -> threads.add(Thread.currentThread()));
+
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+}
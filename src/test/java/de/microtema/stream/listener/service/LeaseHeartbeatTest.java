@@ -0,0 +1,104 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
+import de.microtema.stream.listener.support.CommitBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LeaseHeartbeatTest {
+
+    LeaseHeartbeat<EventIdAware> sut;
+
+    @Mock
+    StreamListenerDataProvider<EventIdAware> dataProvider;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    List<EventIdAware> records = List.of(event(1L), event(2L));
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setId("endpoint");
+        endpoint.setDataProvider(dataProvider);
+        endpoint.setLeaseRenewInterval(10);
+
+        sut = new LeaseHeartbeat<>(endpoint);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void extendLease_until_committed() throws Exception {
+
+        var commitBatch = new CommitBatch(2);
+
+        sut.acquire(records);
+
+        verify(dataProvider, timeout(1000).atLeastOnce()).extendLease(eq(endpoint), aryEq(new long[]{1, 2}));
+
+        sut.transfer(records, commitBatch);
+        clearInvocations(dataProvider);
+
+        verify(dataProvider, timeout(1000).atLeastOnce()).extendLease(eq(endpoint), aryEq(new long[]{1, 2}));
+
+        sut.release(commitBatch);
+
+        // Let a renewal that started before the release complete
+        Thread.sleep(20);
+        clearInvocations(dataProvider);
+
+        verify(dataProvider, after(100).never()).extendLease(any(), any());
+    }
+
+    @Test
+    void release_will_stop_renewing_given_records() throws Exception {
+
+        sut.acquire(records);
+        sut.release(records, List.of(records.get(0)));
+
+        // Let a renewal that started before the release complete
+        Thread.sleep(20);
+        clearInvocations(dataProvider);
+
+        verify(dataProvider, timeout(1000).atLeastOnce()).extendLease(eq(endpoint), aryEq(new long[]{2}));
+        verify(dataProvider, never()).extendLease(eq(endpoint), aryEq(new long[]{1, 2}));
+    }
+
+    static EventIdAware event(Long id) {
+
+        return new EventIdAware() {
+
+            @Override
+            public String getEventId() {
+                return String.valueOf(id);
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+        };
+    }
+}
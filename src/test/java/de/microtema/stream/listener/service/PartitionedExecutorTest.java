@@ -0,0 +1,77 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PartitionedExecutorTest {
+
+    PartitionedExecutor sut;
+
+    StreamListenerEndpoint<Event> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setId("endpoint");
+        endpoint.setConcurrency(4);
+        endpoint.setPartitionKeyExtractor(Event::getPartitionKey);
+
+        sut = new PartitionedExecutor(endpoint);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void execute_will_keep_order_within_key_and_pass_record_index() {
+
+        var records = IntStream.range(0, 1000).mapToObj(it -> new Event((long) it, "key-" + it % 7)).collect(Collectors.toList());
+
+        Map<String, List<Long>> executed = new ConcurrentHashMap<>();
+        var indexes = new long[records.size()];
+
+        sut.execute(records, (it, index) -> {
+            executed.computeIfAbsent(it.getPartitionKey(), key -> new ArrayList<>()).add(it.getId());
+            indexes[index] = it.getId();
+        });
+
+        assertArrayEquals(records.stream().mapToLong(Event::getId).toArray(), indexes);
+
+        var expected = records.stream().collect(Collectors.groupingBy(Event::getPartitionKey, Collectors.mapping(Event::getId, Collectors.toList())));
+
+        assertEquals(expected, executed);
+    }
+
+    record Event(Long id, String key) implements EventIdAware {
+
+        @Override
+        public String getEventId() {
+            return String.valueOf(id);
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getPartitionKey() {
+            return key;
+        }
+    }
+}
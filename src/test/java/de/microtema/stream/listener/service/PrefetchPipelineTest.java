@@ -0,0 +1,118 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
+import de.microtema.stream.listener.support.ResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefetchPipelineTest {
+
+    PrefetchPipeline<Event> sut;
+
+    DataProvider dataProvider = new DataProvider();
+
+    StreamListenerEndpoint<Event> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setId("endpoint");
+        endpoint.setGroupId("group");
+        endpoint.setDataProvider(dataProvider);
+        endpoint.setPrefetch(2);
+
+        sut = new PrefetchPipeline<>(endpoint);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void receive_will_receive_next_batch_while_current_is_executed() throws Exception {
+
+        var answer = sut.receive();
+
+        // Batch 0 is in execution, batch 1 is received without a further call
+        assertEquals(List.of(new Event(0L)), answer);
+        assertTrue(dataProvider.received.await(1, TimeUnit.SECONDS));
+
+        assertEquals(List.of(new Event(1L)), sut.receive());
+        assertEquals(List.of(new Event(2L)), sut.receive());
+    }
+
+    @Test
+    void receive_will_limit_prefetched_batches() throws Exception {
+
+        sut.receive();
+
+        assertTrue(dataProvider.received.await(1, TimeUnit.SECONDS));
+
+        Thread.sleep(100);
+
+        // The batch in execution and two prefetched batches
+        assertEquals(3, dataProvider.receives.get());
+    }
+
+    @Test
+    void close_will_drop_prefetched_batches() throws Exception {
+
+        sut.receive();
+
+        assertTrue(dataProvider.received.await(1, TimeUnit.SECONDS));
+
+        sut.close();
+
+        sut = new PrefetchPipeline<>(endpoint);
+
+        // Dropped batches are not handed out again by the pipeline, but by the data provider
+        assertEquals(List.of(new Event(3L)), sut.receive());
+    }
+
+    static class DataProvider implements StreamListenerDataProvider<Event> {
+
+        AtomicInteger receives = new AtomicInteger();
+
+        CountDownLatch received = new CountDownLatch(3);
+
+        @Override
+        public List<Event> receive(StreamListenerEndpoint<Event> endpoint) {
+
+            var id = receives.getAndIncrement();
+
+            received.countDown();
+
+            return List.of(new Event((long) id));
+        }
+
+        @Override
+        public void commit(StreamListenerEndpoint<Event> endpoint, List<ResponseStatus> responses) {
+            // Not committed by the pipeline
+        }
+    }
+
+    record Event(Long id) implements EventIdAware {
+
+        @Override
+        public String getEventId() {
+            return String.valueOf(id);
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarantineTrackerTest {
+
+    QuarantineTracker sut;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setQuarantineAfter(2);
+
+        sut = new QuarantineTracker(endpoint);
+    }
+
+    @Test
+    void failed_will_quarantine_once_after_threshold() {
+
+        assertFalse(sut.failed("event"));
+        assertFalse(sut.isQuarantined("event"));
+
+        assertTrue(sut.failed("event"));
+        assertTrue(sut.isQuarantined("event"));
+
+        assertFalse(sut.failed("event"));
+    }
+
+    @Test
+    void succeeded_will_reset_failures() {
+
+        sut.failed("event");
+        sut.succeeded("event");
+
+        assertFalse(sut.failed("event"));
+    }
+
+    @Test
+    void failures_are_bounded() {
+
+        sut.failed("event");
+
+        for (int i = 0; i < QuarantineTracker.MAX_TRACKED_EVENTS; i++) {
+            sut.failed("other-" + i);
+        }
+
+        assertFalse(sut.failed("event"));
+    }
+}
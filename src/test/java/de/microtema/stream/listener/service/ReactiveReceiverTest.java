@@ -0,0 +1,101 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.ReactiveStreamListenerDataProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveReceiverTest {
+
+    ReactiveReceiver<Event> sut;
+
+    @Mock
+    ReactiveStreamListenerDataProvider<Event> dataProvider;
+
+    SubmissionPublisher<Event> publisher = new SubmissionPublisher<>();
+
+    List<List<Event>> windows = new CopyOnWriteArrayList<>();
+
+    StreamListenerEndpoint<Event> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setId("endpoint");
+        endpoint.setDataProvider(dataProvider);
+        endpoint.setBatchSize(10);
+        endpoint.setMaxDelay(60000);
+
+        when(dataProvider.publish(endpoint)).thenReturn(publisher);
+
+        sut = new ReactiveReceiver<>(endpoint, StreamListenerMetrics.NOOP, windows::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void start_will_execute_published_records_in_bounded_windows() throws Exception {
+
+        sut.start();
+
+        awaitUntil(() -> publisher.getNumberOfSubscribers() == 1);
+
+        LongStream.range(0, 95).mapToObj(Event::new).forEach(publisher::submit);
+
+        publisher.close();
+
+        awaitUntil(() -> windows.stream().mapToInt(List::size).sum() == 95);
+
+        assertTrue(windows.stream().allMatch(it -> it.size() <= 10));
+
+        var executed = windows.stream().flatMap(List::stream).map(Event::getId).collect(Collectors.toList());
+
+        assertEquals(LongStream.range(0, 95).boxed().collect(Collectors.toList()), executed);
+    }
+
+    static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        assertTrue(condition.getAsBoolean());
+    }
+
+    record Event(Long id) implements EventIdAware {
+
+        @Override
+        public String getEventId() {
+            return String.valueOf(id);
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    RetryPolicy sut;
+
+    StreamListenerEndpoint<EventIdAware> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setMaxAttempts(3);
+        endpoint.setRetryDelay(100);
+        endpoint.setRetryMaxDelay(300);
+
+        sut = new RetryPolicy(endpoint);
+    }
+
+    @Test
+    void canRetry_until_max_attempts() {
+
+        var exception = new IllegalStateException();
+
+        assertTrue(sut.canRetry(1, exception));
+        assertTrue(sut.canRetry(2, exception));
+        assertFalse(sut.canRetry(3, exception));
+    }
+
+    @Test
+    void canRetry_will_match_retryable_exception_or_cause() {
+
+        endpoint.setRetryableExceptions(new Class[]{TimeoutException.class});
+
+        assertTrue(sut.canRetry(1, new UndeclaredThrowableException(new TimeoutException())));
+        assertFalse(sut.canRetry(1, new IllegalArgumentException()));
+    }
+
+    @Test
+    void getDelay_will_double_up_to_max_delay() {
+
+        assertEquals(100, sut.getDelay(1));
+        assertEquals(200, sut.getDelay(2));
+        assertEquals(300, sut.getDelay(3));
+        assertEquals(300, sut.getDelay(64));
+    }
+}
@@ -0,0 +1,406 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.EventIdAware;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import de.microtema.stream.listener.provider.service.RecordSource;
+import de.microtema.stream.listener.provider.service.StreamListenerDataProvider;
+import de.microtema.stream.listener.support.CommitBatch;
+import de.microtema.stream.listener.support.ResponseState;
+import de.microtema.stream.listener.support.ResponseStatus;
+import de.microtema.stream.listener.support.StreamListenerInvoker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StreamListenerExecutionServiceTest {
+
+    /**
+     * Bytes per record of the commit columns (long id, byte state) plus slack for JIT and logging noise,
+     * any object per record (16 bytes at least) would exceed it. The exact rate is reported by the JMH {@code -prof gc} run.
+     */
+    static final double MAX_BYTES_PER_RECORD = 16;
+
+    StreamListenerExecutionService<Event> sut;
+
+    DataProvider dataProvider = new DataProvider();
+
+    Listener listener = new Listener();
+
+    StreamListenerEndpoint<Event> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        endpoint.setId("endpoint");
+        endpoint.setGroupId("group");
+        endpoint.setDataProvider(dataProvider);
+        endpoint.setInvoker(StreamListenerInvoker.of(listener, Listener.class.getDeclaredMethod("onEvent", Event.class)));
+
+        sut = new StreamListenerExecutionService<>(new DefaultListableBeanFactory().getBeanProvider(StreamListenerMetrics.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.destroy();
+    }
+
+    @Test
+    void executeEndpointMethod_will_execute_and_commit_records() {
+
+        dataProvider.records = events(10);
+
+        var answer = sut.executeEndpointMethod(endpoint);
+
+        assertEquals(10, answer);
+        assertEquals(10, listener.executed);
+        assertEquals(10, dataProvider.commitBatch.count(ResponseState.OK));
+    }
+
+    @Test
+    void executeEndpointMethod_will_execute_and_commit_per_chunk() {
+
+        endpoint.setChunkSize(4);
+
+        dataProvider.records = events(10);
+
+        var answer = sut.executeEndpointMethod(endpoint);
+
+        assertEquals(10, answer);
+        assertEquals(10, listener.executed);
+        assertEquals(List.of(4, 4, 2), dataProvider.commitBatches.stream().map(CommitBatch::size).collect(Collectors.toList()));
+        assertTrue(dataProvider.closed);
+    }
+
+    @Test
+    void executeEndpointMethod_will_close_record_source_on_exception() {
+
+        endpoint.setChunkSize(4);
+
+        dataProvider.records = events(10);
+        dataProvider.failAt = 6;
+
+        assertThrows(IllegalStateException.class, () -> sut.executeEndpointMethod(endpoint));
+
+        assertTrue(dataProvider.closed);
+        assertEquals(4, listener.executed);
+        assertEquals(1, dataProvider.commitBatches.size());
+    }
+
+    @Test
+    void destroy_will_drop_prefetched_batches_without_commit() {
+
+        endpoint.setPrefetch(2);
+
+        dataProvider.records = events(10);
+
+        sut.executeEndpointMethod(endpoint);
+        sut.destroy();
+
+        assertEquals(1, dataProvider.commitBatches.size());
+        assertEquals(10, dataProvider.commitBatches.get(0).count(ResponseState.OK));
+    }
+
+    @Test
+    void executeEndpointMethod_will_probe_half_open_circuit_without_changing_endpoint() {
+
+        endpoint.setFailureRateThreshold(50);
+        endpoint.setCircuitOpenTime(0);
+
+        listener.fail = true;
+        dataProvider.records = events(100);
+
+        sut.executeEndpointMethod(endpoint);
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(List.of(100, CircuitBreaker.HALF_OPEN_BATCH_SIZE), dataProvider.batchSizes);
+        assertEquals(100, endpoint.getBatchSize());
+    }
+
+    @Test
+    void executeEndpointMethod_will_skip_processed_events() {
+
+        endpoint.setDedupSize(100);
+
+        dataProvider.records = events(10);
+
+        sut.executeEndpointMethod(endpoint);
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(10, listener.executed);
+        assertEquals(10, dataProvider.commitBatch.count(ResponseState.SKIPPED));
+    }
+
+    @Test
+    void executeEndpointMethod_will_release_lease_of_duplicate_records() throws Exception {
+
+        endpoint.setBatch(true);
+        endpoint.setDedupSize(100);
+        endpoint.setLeaseRenewInterval(20);
+        endpoint.setInvoker(StreamListenerInvoker.of(listener, Listener.class.getDeclaredMethod("onEvents", List.class)));
+
+        dataProvider.records = List.copyOf(events(5));
+
+        sut.executeEndpointMethod(endpoint);
+
+        dataProvider.records = List.copyOf(events(10));
+        dataProvider.extendedIds.clear();
+        listener.delay = 200;
+
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(Set.of(5L, 6L, 7L, 8L, 9L), dataProvider.extendedIds);
+        assertEquals(5, dataProvider.commitBatch.count(ResponseState.SKIPPED));
+    }
+
+    @Test
+    void executeEndpointMethod_will_not_modify_received_records() throws Exception {
+
+        endpoint.setBatch(true);
+        endpoint.setDedupSize(100);
+        endpoint.setQuarantineAfter(1);
+        endpoint.setMaxBisectInvocations(20);
+        endpoint.setInvoker(StreamListenerInvoker.of(listener, Listener.class.getDeclaredMethod("onEvents", List.class)));
+
+        listener.poisonId = 7;
+        dataProvider.records = List.copyOf(events(10).subList(5, 10));
+
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(ResponseState.QUARANTINED, dataProvider.commitBatch.getState(2));
+
+        var records = List.copyOf(events(10));
+        dataProvider.records = records;
+
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(10, records.size());
+        assertEquals(4, dataProvider.commitBatch.count(ResponseState.SKIPPED));
+        assertEquals(1, dataProvider.commitBatch.count(ResponseState.QUARANTINED));
+        assertEquals(5, dataProvider.commitBatch.count(ResponseState.OK));
+    }
+
+    @Test
+    void executeEndpointMethod_will_bisect_failed_batch() throws Exception {
+
+        endpoint.setBatch(true);
+        endpoint.setMaxBisectInvocations(20);
+
+        listener.poisonId = 7;
+        endpoint.setInvoker(StreamListenerInvoker.of(listener, Listener.class.getDeclaredMethod("onEvents", List.class)));
+
+        dataProvider.records = events(100);
+
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(99, dataProvider.commitBatch.count(ResponseState.OK));
+        assertEquals(ResponseState.ERROR, dataProvider.commitBatch.getState(7));
+    }
+
+    @Test
+    void executeEndpointMethod_will_not_quarantine_records_of_failed_batch() throws Exception {
+
+        endpoint.setBatch(true);
+        endpoint.setQuarantineAfter(2);
+
+        listener.poisonId = 7;
+        endpoint.setInvoker(StreamListenerInvoker.of(listener, Listener.class.getDeclaredMethod("onEvents", List.class)));
+
+        dataProvider.records = events(10);
+
+        sut.executeEndpointMethod(endpoint);
+        sut.executeEndpointMethod(endpoint);
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(10, dataProvider.commitBatch.count(ResponseState.ERROR));
+
+        listener.poisonId = -1;
+
+        sut.executeEndpointMethod(endpoint);
+
+        assertEquals(10, listener.executed);
+        assertEquals(10, dataProvider.commitBatch.count(ResponseState.OK));
+    }
+
+    @Test
+    void executeEndpointMethod_will_not_allocate_per_record() {
+
+        var threadMXBean = ManagementFactory.getThreadMXBean();
+
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean it && it.isThreadAllocatedMemorySupported() && it.isThreadAllocatedMemoryEnabled());
+
+        var smallBatch = events(100);
+        var largeBatch = events(10_100);
+
+        // Warm up, so the measured cycles run compiled code
+        for (int i = 0; i < 100; i++) {
+            dataProvider.records = largeBatch;
+            sut.executeEndpointMethod(endpoint);
+        }
+
+        var small = Long.MAX_VALUE;
+        var large = Long.MAX_VALUE;
+
+        // The minimum of a few runs filters allocations of the logging and the JIT
+        for (int i = 0; i < 20; i++) {
+            small = Math.min(small, allocatedBytes(smallBatch));
+            large = Math.min(large, allocatedBytes(largeBatch));
+        }
+
+        var bytesPerRecord = (large - small) / (double) (largeBatch.size() - smallBatch.size());
+
+        assertTrue(bytesPerRecord <= MAX_BYTES_PER_RECORD, () -> "Allocated " + bytesPerRecord + " bytes per record");
+    }
+
+    long allocatedBytes(List<Event> records) {
+
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        dataProvider.records = records;
+
+        var before = threadMXBean.getCurrentThreadAllocatedBytes();
+
+        sut.executeEndpointMethod(endpoint);
+
+        return threadMXBean.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    static List<Event> events(int size) {
+
+        return LongStream.range(0, size).mapToObj(Event::new).collect(Collectors.toList());
+    }
+
+    static class Listener {
+
+        long executed;
+
+        boolean fail;
+
+        void onEvent(Event event) {
+
+            if (fail) {
+                throw new IllegalStateException("Failing event");
+            }
+
+            executed++;
+        }
+
+        long delay;
+
+        long poisonId = -1;
+
+        void onEvents(List<Event> events) throws InterruptedException {
+
+            Thread.sleep(delay);
+
+            if (events.stream().anyMatch(it -> it.id() == poisonId)) {
+                throw new IllegalStateException("Poison event");
+            }
+
+            executed += events.size();
+        }
+    }
+
+    static class DataProvider implements StreamListenerDataProvider<Event> {
+
+        List<Event> records;
+
+        List<Integer> batchSizes = new ArrayList<>();
+
+        Set<Long> extendedIds = ConcurrentHashMap.newKeySet();
+
+        CommitBatch commitBatch;
+
+        List<CommitBatch> commitBatches = new CopyOnWriteArrayList<>();
+
+        int failAt = -1;
+
+        boolean closed;
+
+        @Override
+        public List<Event> receive(StreamListenerEndpoint<Event> endpoint) {
+
+            batchSizes.add(endpoint.getBatchSize());
+
+            return records;
+        }
+
+        @Override
+        public RecordSource<Event> open(StreamListenerEndpoint<Event> endpoint) {
+
+            var iterator = receive(endpoint).iterator();
+
+            return new RecordSource<>() {
+
+                int index;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Event next() {
+
+                    if (index++ == failAt) {
+                        throw new IllegalStateException("Cursor failed");
+                    }
+
+                    return iterator.next();
+                }
+
+                @Override
+                public void close() {
+                    closed = true;
+                }
+            };
+        }
+
+        @Override
+        public void commit(StreamListenerEndpoint<Event> endpoint, List<ResponseStatus> responses) {
+            commit(endpoint, CommitBatch.of(responses));
+        }
+
+        @Override
+        public void commit(StreamListenerEndpoint<Event> endpoint, CommitBatch commitBatch) {
+            this.commitBatch = commitBatch;
+            this.commitBatches.add(commitBatch);
+        }
+
+        @Override
+        public void extendLease(StreamListenerEndpoint<Event> endpoint, long[] ids) {
+
+            for (var id : ids) {
+                extendedIds.add(id);
+            }
+        }
+    }
+
+    record Event(Long id) implements EventIdAware {
+
+        @Override
+        public String getEventId() {
+            return String.valueOf(id);
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+}
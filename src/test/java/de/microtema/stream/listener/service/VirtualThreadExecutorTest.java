@@ -0,0 +1,114 @@
+package de.microtema.stream.listener.service;
+
+import de.microtema.stream.listener.metrics.StreamListenerMetrics;
+import de.microtema.stream.listener.model.StreamListenerEndpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadExecutorTest {
+
+    VirtualThreadExecutor sut;
+
+    StreamListenerEndpoint<?> endpoint = new StreamListenerEndpoint<>();
+
+    @BeforeEach
+    void setUp() {
+
+        endpoint.setId("endpoint");
+        endpoint.setConcurrency(4);
+
+        // Platform threads stand in for virtual threads, so the test runs on any runtime
+        sut = new VirtualThreadExecutor(endpoint, Executors.newCachedThreadPool());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void execute_will_run_records_in_parallel() {
+
+        var records = List.of(0, 1, 2, 3);
+        var started = new CountDownLatch(records.size());
+        var indexes = new int[records.size()];
+
+        sut.execute(records, (it, index) -> {
+
+            started.countDown();
+
+            try {
+                // Completes only if all records run at the same time
+                assertTrue(started.await(1, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            indexes[index] = it;
+        });
+
+        assertEquals(0, started.getCount());
+        assertEquals(List.of(0, 1, 2, 3), IntStream.of(indexes).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    void execute_will_limit_records_in_flight_to_concurrency() {
+
+        var records = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+
+        sut.execute(records, (it, index) -> {
+
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            inFlight.decrementAndGet();
+        });
+
+        assertTrue(maxInFlight.get() <= 4);
+    }
+
+    @Test
+    void execute_after_close_will_run_on_caller_thread() {
+
+        sut.close();
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        sut.execute(List.of(0, 1, 2, 3, 4, 5), (it, index) -> threads.add(Thread.currentThread()));
+
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
+    @Test
+    void create_will_fall_back_to_platform_threads_if_not_supported() {
+
+        var answer = VirtualThreadExecutor.create(endpoint, StreamListenerMetrics.NOOP);
+
+        try {
+            assertEquals(VirtualThreadExecutor.isSupported() ? VirtualThreadExecutor.class : EndpointWorkerPool.class, answer.getClass());
+        } finally {
+            answer.close();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package de.microtema.stream.listener.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommitBatchTest {
+
+    CommitBatch sut;
+
+    @BeforeEach
+    void setUp() {
+
+        sut = new CommitBatch(6);
+
+        sut.set(0, 1L, ResponseState.OK, null);
+        sut.set(1, 2L, ResponseState.OK, null);
+        sut.set(2, 3L, ResponseState.ERROR, "boom");
+        sut.set(3, 4L, ResponseState.OK, null);
+        sut.set(4, 5L, ResponseState.SKIPPED, null);
+        sut.set(5, 6L, ResponseState.ERROR, "boom");
+    }
+
+    @Test
+    void set_will_store_each_error_message_once() {
+
+        assertEquals(List.of("boom"), sut.getErrorMessages());
+        assertEquals("boom", sut.getErrorMessage(2));
+        assertEquals("boom", sut.getErrorMessage(5));
+        assertNull(sut.getErrorMessage(0));
+    }
+
+    @Test
+    void count_and_getIds_by_state() {
+
+        assertEquals(3, sut.count(ResponseState.OK));
+        assertEquals(1, sut.count(ResponseState.SKIPPED));
+        assertArrayEquals(new long[]{3, 6}, sut.getIds(ResponseState.ERROR));
+    }
+
+    @Test
+    void getOkRanges_will_encode_consecutive_ids() {
+
+        assertArrayEquals(new long[]{1, 2, 4, 4}, sut.getOkRanges());
+    }
+
+    @Test
+    void toResponseStatuses_will_adapt_each_entry() {
+
+        var responses = sut.toResponseStatuses();
+
+        assertEquals(6, responses.size());
+
+        var error = responses.get(2);
+
+        assertEquals(3L, error.getId());
+        assertEquals(ResponseState.ERROR, error.getState());
+        assertFalse(error.isSuccess());
+        assertEquals("boom", error.getErrorMessage());
+
+        assertTrue(responses.get(4).isSuccess());
+        assertEquals(ResponseState.SKIPPED, responses.get(4).getState());
+    }
+
+    @Test
+    void toResponseStatuses_will_report_quarantined_as_not_successful() {
+
+        var commitBatch = new CommitBatch(1);
+
+        commitBatch.set(0, 1L, ResponseState.QUARANTINED, "boom");
+
+        var response = commitBatch.toResponseStatuses().get(0);
+
+        assertEquals(ResponseState.QUARANTINED, response.getState());
+        assertFalse(response.isSuccess());
+        assertEquals("boom", response.getErrorMessage());
+    }
+
+    @Test
+    void merge_will_concat_batches_and_remap_error_messages() {
+
+        var other = new CommitBatch(2);
+
+        other.set(0, 7L, ResponseState.ERROR, "other");
+        other.set(1, 8L, ResponseState.ERROR, "boom");
+
+        var merged = CommitBatch.merge(List.of(sut, other));
+
+        assertEquals(8, merged.size());
+        assertEquals(List.of("boom", "other"), merged.getErrorMessages());
+        assertEquals("other", merged.getErrorMessage(6));
+        assertEquals("boom", merged.getErrorMessage(7));
+        assertEquals(8L, merged.getId(7));
+    }
+
+    @Test
+    void of_will_adapt_response_statuses() {
+
+        var commitBatch = CommitBatch.of(sut.toResponseStatuses());
+
+        assertArrayEquals(sut.getIds(ResponseState.OK), commitBatch.getIds(ResponseState.OK));
+        assertEquals("boom", commitBatch.getErrorMessage(2));
+    }
+
+    @Test
+    void toResponseStatuses_will_restore_null_ids() {
+
+        var commitBatch = new CommitBatch(2);
+
+        commitBatch.set(0, null, ResponseState.ERROR, "boom");
+        commitBatch.set(1, 0L, ResponseState.OK, null);
+
+        var merged = CommitBatch.merge(List.of(sut, commitBatch));
+        var responses = merged.toResponseStatuses();
+
+        assertFalse(merged.hasId(6));
+        assertTrue(merged.hasId(7));
+        assertNull(responses.get(6).getId());
+        assertEquals(0L, responses.get(7).getId());
+    }
+}
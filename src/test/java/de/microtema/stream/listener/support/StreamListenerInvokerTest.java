@@ -0,0 +1,78 @@
+package de.microtema.stream.listener.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamListenerInvokerTest {
+
+    EventListener bean = new EventListener();
+
+    @Test
+    void invoke() throws Exception {
+
+        var sut = StreamListenerInvoker.of(bean, EventListener.class.getDeclaredMethod("on", String.class));
+
+        sut.invoke("foo");
+
+        assertEquals(List.of("foo"), bean.records);
+    }
+
+    @Test
+    void invoke_with_method_parameters() throws Exception {
+
+        var sut = StreamListenerInvoker.of(bean, EventListener.class.getDeclaredMethod("on", String.class, String.class), "bar");
+
+        sut.invoke("foo");
+
+        assertEquals(List.of("foo", "bar"), bean.records);
+    }
+
+    @Test
+    void invoke_will_propagate_runtime_exception() throws Exception {
+
+        var sut = StreamListenerInvoker.of(bean, EventListener.class.getDeclaredMethod("fail", String.class));
+
+        var exception = assertThrows(IllegalStateException.class, () -> sut.invoke("foo"));
+
+        assertEquals("foo", exception.getMessage());
+    }
+
+    @Test
+    void invoke_will_wrap_checked_exception() throws Exception {
+
+        var sut = StreamListenerInvoker.of(bean, EventListener.class.getDeclaredMethod("failChecked", String.class));
+
+        var exception = assertThrows(UndeclaredThrowableException.class, () -> sut.invoke("foo"));
+
+        assertTrue(exception.getCause() instanceof IOException);
+    }
+
+    static class EventListener {
+
+        final List<String> records = new ArrayList<>();
+
+        private void on(String record) {
+            records.add(record);
+        }
+
+        private String on(String record, String parameter) {
+            records.add(record);
+            records.add(parameter);
+            return record;
+        }
+
+        private void fail(String record) {
+            throw new IllegalStateException(record);
+        }
+
+        private void failChecked(String record) throws IOException {
+            throw new IOException(record);
+        }
+    }
+}